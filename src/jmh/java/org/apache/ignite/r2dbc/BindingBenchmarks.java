@@ -0,0 +1,105 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of binding and executing a single row update. Run with the GC profiler ({@code -prof gc}, as the
+ * {@code jmh} profile does) and compare {@code gc.alloc.rate.norm}, the bytes allocated per operation:
+ * {@link #sortedMapBinding} holds the parameters the way {@link Binding} did before it used a pre-sized array.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BindingBenchmarks {
+
+    private static final int ROWS = 1000;
+
+    @State(Scope.Thread)
+    public static class Row {
+
+        Integer id = 42;
+
+        String name = "name-42";
+    }
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        Ignite server;
+
+        IgniteConnectionFactory factory;
+
+        IgniteConnection connection;
+
+        @Setup(Level.Trial)
+        public void startServer() {
+            this.server = Ignition.start(new IgniteConfiguration().setIgniteInstanceName("benchmark-server"));
+            this.factory = new IgniteConnectionFactory(this.server);
+            this.connection = this.factory.create().block();
+
+            this.connection.createStatement("CREATE TABLE IF NOT EXISTS Person (id int primary key, name varchar)").execute()
+                    .flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+            IgniteStatement insert = this.connection.createStatement("MERGE INTO Person(id, name) VALUES(?, ?)");
+            for (int i = 0; i < ROWS; i++) {
+                insert.bind(0, i).bind(1, "name-" + i).add();
+            }
+            insert.execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopServer() {
+            this.connection.close().block();
+            this.factory.close().block();
+            this.server.close();
+        }
+    }
+
+    @Benchmark
+    public Object[] arrayBinding(Row row) {
+        Binding binding = new Binding(2).add(0, row.id).add(1, row.name);
+
+        binding.validate();
+        return binding.getParameters();
+    }
+
+    @Benchmark
+    public Object[] sortedMapBinding(Row row) {
+        SortedMap<Integer, Object> parameters = new TreeMap<>();
+
+        parameters.put(0, row.id);
+        parameters.put(1, row.name);
+        return parameters.values().toArray(new Object[0]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer executeSingleRow(Server server, Row row) {
+        return server.connection.createStatement("UPDATE Person SET name = ? WHERE id = ?")
+                .bind(0, row.name)
+                .bind(1, row.id)
+                .execute()
+                .flatMap(IgniteResult::getRowsUpdated)
+                .blockLast();
+    }
+}
@@ -0,0 +1,135 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.ClientConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the thick and thin transports against an embedded server node: time to start a client and per-query
+ * latency of a point lookup.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TransportBenchmarks {
+
+    private static final int ROWS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        Ignite server;
+
+        @Setup(Level.Trial)
+        public void startServer() {
+            this.server = Ignition.start(new IgniteConfiguration().setIgniteInstanceName("benchmark-server"));
+
+            IgniteConnection connection = new IgniteConnectionFactory(this.server).create().block();
+
+            connection.createStatement("CREATE TABLE IF NOT EXISTS Person (id int primary key, name varchar)").execute()
+                    .flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+            for (int i = 0; i < ROWS; i++) {
+                connection.createStatement("MERGE INTO Person(id, name) VALUES(?, ?)")
+                        .bind(0, i)
+                        .bind(1, "name-" + i)
+                        .execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+            }
+
+            connection.close().block();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopServer() {
+            this.server.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Connections {
+
+        Ignite thickClient;
+
+        IgniteClient thinClient;
+
+        IgniteConnection thick;
+
+        IgniteConnection thin;
+
+        @Setup(Level.Trial)
+        public void connect(Server server) {
+            this.thickClient = Ignition.start(new IgniteConfiguration().setIgniteInstanceName("benchmark-thick").setClientMode(true));
+            this.thinClient = Ignition.startClient(new ClientConfiguration().setAddresses("127.0.0.1:10800"));
+
+            this.thick = new IgniteConnectionFactory(this.thickClient).create().block();
+            this.thin = new IgniteConnectionFactory(this.thinClient).create().block();
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws Exception {
+            this.thick.close().block();
+            this.thin.close().block();
+            this.thinClient.close();
+            this.thickClient.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void startThickClient(Server server) {
+        Ignition.start(new IgniteConfiguration().setIgniteInstanceName("benchmark-startup").setClientMode(true)).close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void startThinClient(Server server) throws Exception {
+        Ignition.startClient(new ClientConfiguration().setAddresses("127.0.0.1:10800")).close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void thickPointLookup(Connections connections, Blackhole blackhole) {
+        pointLookup(connections.thick, blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void thinPointLookup(Connections connections, Blackhole blackhole) {
+        pointLookup(connections.thin, blackhole);
+    }
+
+    private static void pointLookup(IgniteConnection connection, Blackhole blackhole) {
+        connection.createStatement("SELECT name FROM Person WHERE id = ?")
+                .bind(0, ThreadLocalRandom.current().nextInt(ROWS))
+                .execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0, String.class)))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+}
@@ -1,35 +1,104 @@
 package org.apache.ignite.r2dbc;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 /**
- * A collection of {@link Object}s for a single bind invocation of an {@link ClientWrapper}.
+ * The parameters of a single bind invocation of an {@link ClientWrapper}, held in an array with one slot per
+ * placeholder of the statement. The array is handed to Ignite as the query arguments once every slot is bound.
  */
 public final class Binding {
 
-    static final Binding EMPTY = new Binding();
+    static final Binding EMPTY = new Binding(0);
+
+    private static final Object UNBOUND = new Object() {
+
+        @Override
+        public String toString() {
+            return "<unbound>";
+        }
+    };
+
+    private final Object[] parameters;
 
-    private final SortedMap<Integer, Object> parameters = new TreeMap<>();
+    private int bound;
+
+    /**
+     * @param size the number of parameters of the statement
+     */
+    Binding(int size) {
+        this.parameters = new Object[size];
+        Arrays.fill(this.parameters, UNBOUND);
+    }
 
     /**
      * Add a {@link Object} to the binding.
      *
      * @param index the index of the {@link Object}
-     * @param value the {@link Object}
+     * @param value the {@link Object}, {@code null} to bind {@code NULL}
      * @return this {@link Binding}
-     * @throws NullPointerException if {@code index} or {@code parameter} is {@code null}
+     * @throws NullPointerException     if {@code index} is {@code null}
+     * @throws IllegalArgumentException if the statement has no parameter at {@code index}
      */
-    public Binding add(Integer index, Object value) {
+    public Binding add(Integer index, @Nullable Object value) {
         Objects.requireNonNull(index, "index must not be null");
-        Objects.requireNonNull(value, "value must not be null");
 
-        this.parameters.put(index, value);
+        if (index < 0 || index >= this.parameters.length) {
+            throw new IllegalArgumentException(String.format("Parameter index %d is out of range, the statement has %d parameters", index, this.parameters.length));
+        }
+
+        if (this.parameters[index] == UNBOUND) {
+            this.bound++;
+        }
+
+        this.parameters[index] = value;
 
         return this;
     }
 
+    /**
+     * Checks that every parameter is bound.
+     *
+     * @throws IllegalStateException if a parameter is not bound
+     */
+    void validate() {
+        if (this.bound == this.parameters.length) {
+            return;
+        }
+
+        for (int i = 0; i < this.parameters.length; i++) {
+            if (this.parameters[i] == UNBOUND) {
+                throw new IllegalStateException(String.format("Parameter %d is not bound", i + 1));
+            }
+        }
+    }
+
+    /**
+     * Returns the value bound at {@code index}.
+     *
+     * @param index the parameter index
+     * @return the value, {@code null} if {@code NULL} is bound or there is no bound parameter at {@code index}
+     */
+    @Nullable
+    Object get(int index) {
+        if (index < 0 || index >= this.parameters.length || this.parameters[index] == UNBOUND) {
+            return null;
+        }
+
+        return this.parameters[index];
+    }
+
+    /**
+     * Returns the parameters as query arguments. The array is not copied and must not be modified.
+     *
+     * @return the parameters, in order
+     */
+    Object[] getParameters() {
+        return this.parameters;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -39,22 +108,18 @@ public final class Binding {
             return false;
         }
         Binding that = (Binding) o;
-        return Objects.equals(this.parameters, that.parameters);
+        return Arrays.equals(this.parameters, that.parameters);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.parameters);
+        return Arrays.hashCode(this.parameters);
     }
 
     @Override
     public String toString() {
         return "Binding{" +
-                "parameters=" + this.parameters +
+                "parameters=" + Arrays.toString(this.parameters) +
                 '}';
     }
-
-    SortedMap<Integer, Object> getParameters() {
-        return this.parameters;
-    }
 }
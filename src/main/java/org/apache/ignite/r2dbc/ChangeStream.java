@@ -0,0 +1,97 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+import reactor.util.concurrent.Queues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The changes of a table as they are reported by the cluster, held in a bounded buffer until they are requested, and
+ * the cursor of {@code SELECT *} on the table, which both names the columns of the changed rows and reads the snapshot.
+ */
+final class ChangeStream {
+
+    private final Logger logger = Loggers.getLogger(this.getClass());
+
+    private final FieldsQueryCursor<List<?>> snapshot;
+
+    private final IgniteRowMetadata rowMetadata;
+
+    private final UnicastProcessor<RowChange> changes;
+
+    // serializes the listener calls, which come from any thread, and fails the stream once the buffer is full
+    private final FluxSink<RowChange> sink;
+
+    @Nullable
+    private volatile AutoCloseable listener;
+
+    /**
+     * @param snapshot    the cursor of {@code SELECT *} on the table
+     * @param rowMetadata the metadata of the rows of {@code snapshot}
+     * @param bufferSize  the maximum number of changes held until they are requested
+     */
+    ChangeStream(FieldsQueryCursor<List<?>> snapshot, IgniteRowMetadata rowMetadata, int bufferSize) {
+        this.snapshot = Objects.requireNonNull(snapshot, "snapshot must not be null");
+        this.rowMetadata = Objects.requireNonNull(rowMetadata, "rowMetadata must not be null");
+        this.changes = UnicastProcessor.create(Queues.<RowChange>get(bufferSize).get());
+        this.sink = this.changes.sink();
+    }
+
+    /**
+     * Starts buffering the changes of the table.
+     *
+     * @param transport the transport listening to the changes
+     * @param schema    the schema of the table
+     * @param table     the table
+     * @param filter    the filter of changes, {@code null} to pass every change
+     */
+    void listen(IgniteTransport transport, String schema, String table, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter) {
+        this.listener = transport.listen(schema, table, new ArrayList<>(this.rowMetadata.getColumnNames()), filter,
+                (type, values) -> this.sink.next(new RowChange(type, IgniteRow.toRow(values, this.rowMetadata))));
+    }
+
+    FieldsQueryCursor<List<?>> getSnapshot() {
+        return this.snapshot;
+    }
+
+    IgniteRowMetadata getRowMetadata() {
+        return this.rowMetadata;
+    }
+
+    /**
+     * Returns the buffered changes, followed by changes as they are reported. May only be subscribed once.
+     *
+     * @return the changes
+     */
+    Flux<RowChange> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Stops listening to the changes and closes the snapshot cursor.
+     */
+    void close() {
+        this.snapshot.close();
+
+        AutoCloseable listener = this.listener;
+
+        if (listener != null) {
+            try {
+                listener.close();
+            } catch (Exception e) {
+                this.logger.debug("Failed to stop listening to changes", e);
+            }
+        }
+
+        this.sink.complete();
+    }
+}
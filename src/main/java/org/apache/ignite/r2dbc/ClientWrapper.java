@@ -1,19 +1,31 @@
 package org.apache.ignite.r2dbc;
 
 import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.ValidationDepth;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
 import org.apache.ignite.cache.query.FieldsQueryCursor;
 import org.apache.ignite.cache.query.SqlFieldsQuery;
-import org.apache.ignite.internal.util.future.IgniteFutureImpl;
-import org.apache.ignite.lang.IgniteFuture;
+import org.apache.ignite.client.ClientException;
+import org.apache.ignite.client.IgniteClient;
 import org.apache.ignite.transactions.TransactionConcurrency;
 import org.apache.ignite.transactions.TransactionIsolation;
+import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static io.r2dbc.spi.IsolationLevel.*;
 
@@ -21,18 +33,147 @@ public class ClientWrapper {
 
     private final Logger logger = Loggers.getLogger(this.getClass());
 
-    private final Ignite ignite;
+    private final IgniteTransport transport;
 
     private final Collection<Binding> emptyBinding = Collections.singleton(Binding.EMPTY);
 
-    private final TransactionConcurrency concurrency = TransactionConcurrency.PESSIMISTIC;
+    private final IgniteConnectionConfiguration configuration;
+
+    private final StatementCache statementCache;
+
+    private final TransactionLanes transactionLanes;
+
+    private final QueryMetrics queryMetrics;
+
+    private final ResultCache resultCache;
+
+    private final ReadCoalescer readCoalescer;
+
+    private final UpdateGrouper updateGrouper;
+
+    private final Scheduler.Worker worker;
+
+    /**
+     * The lane this connection is pinned to while a transaction is open, {@code null} otherwise.
+     */
+    @Nullable
+    private volatile ExecutorService pinnedLane;
+
+    private final Scheduler scheduler;
 
     public ClientWrapper(final Ignite ignite) {
-        this.ignite = ignite;
+        this(ignite, IgniteConnectionConfiguration.builder().build());
+    }
+
+    public ClientWrapper(final Ignite ignite, final IgniteConnectionConfiguration configuration) {
+        this(new ThickTransport(ignite, true), configuration);
+    }
+
+    public ClientWrapper(final IgniteClient client) {
+        this(client, IgniteConnectionConfiguration.builder().build());
+    }
+
+    public ClientWrapper(final IgniteClient client, final IgniteConnectionConfiguration configuration) {
+        this(new ThinTransport(client, true), configuration);
+    }
+
+    /**
+     * @param transport the transport, connections handed out by {@link IgniteConnectionFactory} share the underlying
+     *                  node or thin client and leave it running on {@link #close()}
+     */
+    ClientWrapper(final IgniteTransport transport, final IgniteConnectionConfiguration configuration) {
+        this(transport, configuration, new StatementCache(configuration.getStatementCacheSize()), new TransactionLanes(configuration.getTransactionThreadCap()),
+                new QueryMetrics(), new ResultCache(configuration.getResultCacheSize(), configuration.getResultCacheTtl()));
     }
 
-    public void beginTransaction(IsolationLevel isolation) throws IllegalStateException {
-        ignite.transactions().txStart(concurrency, fromIsolationLevel(isolation));
+    private ClientWrapper(final IgniteTransport transport, final IgniteConnectionConfiguration configuration, final StatementCache statementCache,
+                          final TransactionLanes transactionLanes, final QueryMetrics queryMetrics, final ResultCache resultCache) {
+        this(transport, configuration, statementCache, transactionLanes, queryMetrics, resultCache,
+                new ReadCoalescer(configuration.getCoalescingMaxRows(), queryMetrics),
+                new UpdateGrouper(configuration.getGroupedUpdateSize(), configuration.getGroupedUpdateWindow(), queryMetrics));
+    }
+
+    ClientWrapper(final IgniteTransport transport, final IgniteConnectionConfiguration configuration, final StatementCache statementCache,
+                  final TransactionLanes transactionLanes, final QueryMetrics queryMetrics, final ResultCache resultCache,
+                  final ReadCoalescer readCoalescer, final UpdateGrouper updateGrouper) {
+        this.transport = Objects.requireNonNull(transport, "transport must not be null");
+        this.configuration = Objects.requireNonNull(configuration, "configuration must not be null");
+        this.statementCache = Objects.requireNonNull(statementCache, "statementCache must not be null");
+        this.transactionLanes = Objects.requireNonNull(transactionLanes, "transactionLanes must not be null");
+        this.queryMetrics = Objects.requireNonNull(queryMetrics, "queryMetrics must not be null");
+        this.resultCache = Objects.requireNonNull(resultCache, "resultCache must not be null");
+        this.readCoalescer = Objects.requireNonNull(readCoalescer, "readCoalescer must not be null");
+        this.updateGrouper = Objects.requireNonNull(updateGrouper, "updateGrouper must not be null");
+
+        // a single worker keeps every call of this connection on the same thread, in submission order
+        this.worker = configuration.getExecutionScheduler().createWorker();
+        this.scheduler = Schedulers.fromExecutor(this::schedule);
+    }
+
+    /**
+     * Returns the {@link Scheduler} that runs the blocking calls of this connection.
+     *
+     * @return the connection {@link Scheduler}
+     */
+    public Scheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Runs a blocking {@code task} on the connection {@link Scheduler}.
+     *
+     * @param task the task
+     * @param <T>  the type of the result
+     * @return a {@link Mono} emitting the result of the {@code task}
+     */
+    public <T> Mono<T> submit(Callable<T> task) {
+        Objects.requireNonNull(task, "task must not be null");
+
+        return Mono.fromCallable(task)
+                .subscribeOn(this.scheduler)
+                .onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert);
+    }
+
+    /**
+     * Runs a blocking {@code task} on the connection {@link Scheduler}.
+     *
+     * @param task the task
+     * @return a {@link Mono} that completes once the {@code task} has run
+     */
+    public Mono<Void> run(Runnable task) {
+        Objects.requireNonNull(task, "task must not be null");
+
+        return Mono.<Void>fromRunnable(task)
+                .subscribeOn(this.scheduler)
+                .onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert);
+    }
+
+    /**
+     * Starts a transaction. The connection is pinned to a thread of its own until the transaction ends, because Ignite
+     * binds transactions to the thread that started them.
+     *
+     * @param isolation   the isolation level
+     * @param concurrency the concurrency mode
+     * @return a {@link Mono} that completes once the transaction is started
+     */
+    public Mono<Void> beginTransaction(IsolationLevel isolation, TransactionConcurrency concurrency) {
+        Objects.requireNonNull(concurrency, "concurrency must not be null");
+
+        TransactionIsolation transactionIsolation = fromIsolationLevel(isolation);
+
+        return Mono.defer(() -> {
+            if (this.pinnedLane == null) {
+                this.pinnedLane = this.transactionLanes.acquire();
+            }
+
+            return run(() -> {
+                try {
+                    this.transport.txStart(concurrency, transactionIsolation);
+                } finally {
+                    unpinIfIdle();
+                }
+            });
+        });
     }
 
     private static TransactionIsolation fromIsolationLevel(IsolationLevel level) {
@@ -50,59 +191,664 @@ public class ClientWrapper {
     }
 
     public boolean inTransaction() {
-        return this.ignite.transactions().tx() != null;
+        return this.transport.inTransaction();
+    }
+
+    /**
+     * Validates the connection. {@link ValidationDepth#LOCAL} only checks local state and never blocks,
+     * {@link ValidationDepth#REMOTE} additionally checks that the cluster is active and runs a trivial query.
+     *
+     * @param depth the validation depth
+     * @return a {@link Mono} emitting whether the connection is usable
+     */
+    Mono<Boolean> validate(ValidationDepth depth) {
+        if (this.worker.isDisposed() || !this.transport.isAlive()) {
+            return Mono.just(false);
+        }
+
+        if (depth == ValidationDepth.LOCAL) {
+            return Mono.just(true);
+        }
+
+        return submit(() -> {
+            if (!this.transport.isClusterAvailable()) {
+                return false;
+            }
+
+            try (FieldsQueryCursor<List<?>> cursor = query(new SqlFieldsQuery("SELECT 1"))) {
+                return !cursor.getAll().isEmpty();
+            }
+        }).onErrorReturn(false);
+    }
+
+    /**
+     * Rolls back a transaction left open on this connection so that it can be handed out again.
+     *
+     * @return a {@link Mono} that completes once the connection is reset
+     */
+    Mono<Void> reset() {
+        return run(() -> {
+            try {
+                if (this.transport.inTransaction()) {
+                    this.logger.debug("Rolling back transaction left open on released connection");
+                    this.transport.rollback();
+                }
+            } finally {
+                unpinIfIdle();
+            }
+        });
     }
 
     public Mono<Void> close() {
         return Mono.defer(() -> {
             try {
-                this.ignite.close();
+                this.transport.close();
             }
-            catch (IgniteException e) {
+            catch (IgniteException | ClientException e) {
                 return Mono.error(IgniteExceptionFactory.convert(e));
             }
+            finally {
+                this.worker.dispose();
+
+                // a transaction may still be bound to the lane thread, so the lane is not reused
+                ExecutorService lane = this.pinnedLane;
+                if (lane != null) {
+                    this.pinnedLane = null;
+                    this.transactionLanes.discard(lane);
+                }
+            }
             return Mono.empty();
         });
     }
 
+    /**
+     * Commits the transaction bound to the connection thread.
+     *
+     * @return a {@link Mono} that completes once the transaction is committed
+     */
     public Mono<Void> commit() {
-        IgniteFutureImpl<Void> commitAsync = (IgniteFutureImpl<Void>) this.ignite.transactions().tx().commitAsync();
-        return Mono.create(sink -> {
-            commitAsync.listen(aVoid -> {
+        return run(() -> {
+            try {
+                this.transport.commit();
+            } finally {
+                unpinIfIdle();
+            }
+        });
+    }
+
+    /**
+     * Rolls back the transaction bound to the connection thread.
+     *
+     * @return a {@link Mono} that completes once the transaction is rolled back
+     */
+    public Mono<Void> rollback() {
+        return run(() -> {
+            try {
+                this.transport.rollback();
+            } finally {
+                unpinIfIdle();
+            }
+        });
+    }
+
+    /**
+     * Executes the {@code query} on the connection {@link Scheduler}. Update counts are read eagerly, row cursors are
+     * fetched on the connection {@link Scheduler} as rows are requested. Cancelling the subscription stops the query on
+     * the cluster.
+     *
+     * @param query the query
+     * @return a {@link Mono} emitting the {@link IgniteResult}
+     */
+    public Mono<IgniteResult> execute(SqlFieldsQuery query) {
+        Objects.requireNonNull(query, "query must not be null");
+
+        return execute(query, this.scheduler);
+    }
+
+    /**
+     * Executes the {@code query} like {@link #execute(SqlFieldsQuery)}, split into one query per range of partitions
+     * of the tables it reads. The ranges run at most {@code parallelism} at a time, each on a worker of the execution
+     * scheduler of its own, and their rows are merged into one result. Queries inside a transaction, queries restricted
+     * to partitions already and queries on tables that are not partitioned alike run as a whole.
+     *
+     * @param query       the query
+     * @param parallelism the number of ranges
+     * @param ordered     whether the rows of a range follow those of the ranges before it, rather than as they arrive
+     * @return a {@link Mono} emitting the {@link IgniteResult}
+     */
+    Mono<IgniteResult> executeSplit(SqlFieldsQuery query, int parallelism, boolean ordered) {
+        Objects.requireNonNull(query, "query must not be null");
+
+        return Mono.defer(() -> {
+            // a transaction is bound to the connection thread, which the ranges do not run on
+            if (parallelism <= 1 || this.pinnedLane != null || query.getPartitions() != null) {
+                return execute(query);
+            }
+
+            return submit(() -> split(query, parallelism))
+                    .flatMap(ranges -> executeRanges(ranges, parallelism, ordered))
+                    .switchIfEmpty(Mono.defer(() -> execute(query)));
+        });
+    }
+
+    private Mono<IgniteResult> execute(SqlFieldsQuery query, Scheduler scheduler) {
+        return Mono.defer(() -> {
+            QueryCancellation cancellation = new QueryCancellation();
+
+            return Mono.fromCallable(() -> {
                 try {
-                    aVoid.get();
-                    sink.success();
+                    FieldsQueryCursor<List<?>> cursor = this.transport.query(query, cancellation);
+
+                    return cancellation.attach(cursor) ? toResult(cursor, query, scheduler) : null;
+                } catch (RuntimeException e) {
+                    // nobody is listening any more, the failure is the cancellation itself
+                    if (cancellation.isCancelled()) {
+                        return null;
+                    }
+                    throw e;
+                }
+            })
+                    .subscribeOn(scheduler)
+                    .onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert)
+                    .doOnNext(result -> cancellation.complete())
+                    .doOnCancel(() -> {
+                        if (cancellation.cancel()) {
+                            this.queryMetrics.onCancelled();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Executes the {@code query} like {@link #execute(SqlFieldsQuery)}, sharing one execution with the identical
+     * queries that start while it runs, see {@link ReadCoalescer}. Shared rows are read eagerly, a result with more
+     * rows than may be shared is read as requested. Queries inside a transaction run on their own.
+     *
+     * @param query the query
+     * @return a {@link Mono} emitting the {@link IgniteResult}
+     */
+    Mono<IgniteResult> executeCoalesced(SqlFieldsQuery query) {
+        Objects.requireNonNull(query, "query must not be null");
+
+        return Mono.defer(() -> {
+            // a transaction must see its own writes
+            if (!this.readCoalescer.isEnabled() || this.pinnedLane != null) {
+                return execute(query);
+            }
+
+            return this.readCoalescer.execute(query, flight -> executeFlight(query, flight), () -> execute(query), this.scheduler);
+        });
+    }
+
+    private Mono<IgniteResult> executeFlight(SqlFieldsQuery query, ReadCoalescer.Flight flight) {
+        QueryCancellation cancellation = new QueryCancellation();
+        int maxRows = this.readCoalescer.getMaxRows();
+
+        return submit(() -> {
+            try {
+                FieldsQueryCursor<List<?>> cursor = this.transport.query(query, cancellation);
+
+                if (!cancellation.attach(cursor)) {
+                    return null;
+                }
+
+                if (!this.transport.isQuery(cursor, query)) {
+                    return toResult(cursor, query);
+                }
+
+                IgniteRowMetadata rowMetadata = this.statementCache.getRowMetadata(query.getSql(), cursor);
+                Iterator<List<?>> iterator = cursor.iterator();
+                List<IgniteRow> rows = new ArrayList<>();
+
+                // one row more than may be shared tells whether the result fits
+                while (rows.size() <= maxRows && iterator.hasNext()) {
+                    rows.add(IgniteRow.toRow(asRow(iterator.next()), rowMetadata));
+                }
+
+                if (rows.size() > maxRows) {
+                    return IgniteResult.toResult(cursor, rows, iterator, rowMetadata, query.getPageSize(), this.scheduler, this.queryMetrics);
                 }
-                catch (IgniteException e) {
-                    sink.error(e);
+
+                cursor.close();
+                flight.share(rowMetadata, rows);
+
+                return new IgniteResult(rowMetadata, Flux.fromIterable(rows), query.getPageSize(), Mono.empty());
+            } catch (RuntimeException e) {
+                // nobody is listening any more, the failure is the cancellation itself
+                if (cancellation.isCancelled()) {
+                    return null;
+                }
+                throw e;
+            }
+        })
+                .doOnNext(result -> cancellation.complete())
+                .doOnCancel(() -> {
+                    if (cancellation.cancel()) {
+                        this.queryMetrics.onCancelled();
+                    }
+                })
+                // the queries waiting for a flight that shared no rows run on their own
+                .doFinally(signal -> flight.release());
+    }
+
+    /**
+     * Executes the {@code query} like {@link #execute(SqlFieldsQuery)}, serving the rows from the {@link ResultCache}
+     * when they are cached. Rows read from the cluster are read eagerly and cached if every table of the query can be
+     * watched for changes. Queries inside a transaction bypass the cache.
+     *
+     * @param query the query
+     * @return a {@link Mono} emitting the {@link IgniteResult}
+     */
+    Mono<IgniteResult> executeCached(SqlFieldsQuery query) {
+        Objects.requireNonNull(query, "query must not be null");
+
+        return Mono.defer(() -> {
+            // a transaction must see its own writes, which the cache only learns about once they are committed
+            if (!this.resultCache.isEnabled() || this.pinnedLane != null) {
+                return execute(query);
+            }
+
+            IgniteResult cached = this.resultCache.get(query);
+
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            Set<String> tables = ResultCache.tables(query.getSql(), query.getSchema());
+
+            if (tables == null) {
+                return execute(query);
+            }
+
+            return submit(() -> {
+                this.logger.debug("Request:  {}", query);
+
+                if (!this.resultCache.watch(this.transport, tables)) {
+                    return toResult(this.transport.query(query), query);
+                }
+
+                long generation = this.resultCache.generation();
+                FieldsQueryCursor<List<?>> cursor = this.transport.query(query);
+
+                if (!this.transport.isQuery(cursor, query)) {
+                    return toResult(cursor, query);
+                }
+
+                try (FieldsQueryCursor<List<?>> rows = cursor) {
+                    IgniteRowMetadata rowMetadata = this.statementCache.getRowMetadata(query.getSql(), rows);
+                    List<IgniteRow> result = new ArrayList<>();
+
+                    for (List<?> values : rows) {
+                        result.add(IgniteRow.toRow(asRow(values), rowMetadata));
+                    }
+
+                    this.resultCache.put(query, tables, rowMetadata, result, generation);
+
+                    return new IgniteResult(rowMetadata, Flux.fromIterable(result), query.getPageSize(), Mono.empty());
                 }
             });
         });
     }
 
-    public Mono<Void> rollback() {
-        IgniteFuture<Void> rollbackAsync = this.ignite.transactions().tx().rollbackAsync();
-        return Mono.create(sink -> {
-            rollbackAsync.listen(aVoid -> {
-                try {
-                    aVoid.get();
-                    sink.success();
+    /**
+     * Runs the single row DML {@code query} like {@link #execute(SqlFieldsQuery)}, grouped with the identical updates
+     * of other connections into one batched execution, see {@link UpdateGrouper}. The group runs on a worker of the
+     * execution scheduler. Updates inside a transaction and on transports without batched executions run on their own.
+     *
+     * @param query the DML query
+     * @return a {@link Mono} emitting the update count {@link IgniteResult}
+     */
+    Mono<IgniteResult> executeGrouped(SqlFieldsQuery query) {
+        Objects.requireNonNull(query, "query must not be null");
+
+        return Mono.defer(() -> {
+            // a transaction is bound to the connection thread, which the group does not run on
+            if (!this.updateGrouper.isEnabled() || this.pinnedLane != null || !this.transport.isUpdateBatched()) {
+                return execute(query);
+            }
+
+            return this.updateGrouper.update(query, this::updateGroup)
+                    // the group completes on the thread of its batch, which must not run the work of its callers
+                    .publishOn(this.scheduler)
+                    .map(count -> IgniteResult.toResult((int) (long) count));
+        });
+    }
+
+    private Mono<long[]> updateGroup(SqlFieldsQuery query, List<Object[]> batchArgs) {
+        // the connection that opened the group may be closed meanwhile, the transport outlives it
+        Scheduler scheduler = Schedulers.single(this.configuration.getExecutionScheduler());
+
+        return Mono.fromCallable(() -> {
+                    this.logger.debug("Request:  {} x {}", query, batchArgs.size());
+                    long[] counts = this.transport.updateBatch(query, batchArgs);
+                    invalidateCached(query);
+                    return counts;
+                })
+                .subscribeOn(scheduler)
+                .onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert)
+                .doFinally(signal -> scheduler.dispose());
+    }
+
+    /**
+     * Runs a DML statement once per binding with a single batched call.
+     *
+     * @param template  the query template, left unmodified
+     * @param bindings  the bindings, the statement runs once for each
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param hints     the query hints
+     * @param timeout   the statement timeout, {@link Duration#ZERO} for none
+     * @return one update count {@link IgniteResult} per binding, in order
+     */
+    Flux<IgniteResult> executeBatch(SqlFieldsQuery template, List<Binding> bindings, int fetchSize, QueryHints hints, Duration timeout) {
+        Objects.requireNonNull(template, "template must not be null");
+        Objects.requireNonNull(bindings, "bindings must not be null");
+
+        return submit(() -> {
+                    SqlFieldsQuery query = createCommand(template, null, Binding.EMPTY, fetchSize, hints, timeout);
+                    List<Object[]> batchArgs = new ArrayList<>(bindings.size());
+
+                    for (Binding binding : bindings) {
+                        batchArgs.add(toArgs(binding));
+                    }
+
+                    this.logger.debug("Request:  {} x {}", query, batchArgs.size());
+                    long[] counts = this.transport.updateBatch(query, batchArgs);
+                    invalidateCached(query);
+                    return counts;
+                })
+                .flatMapIterable(counts -> {
+                    List<IgniteResult> results = new ArrayList<>(counts.length);
+
+                    for (long count : counts) {
+                        results.add(IgniteResult.toResult((int) count));
+                    }
+
+                    return results;
+                });
+    }
+
+    /**
+     * Runs an {@code INSERT} statement once per binding with a single batched call, generating the values of its
+     * generated columns.
+     *
+     * @param keys      the rewritten statement
+     * @param bindings  the bindings, the statement runs once for each
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param hints     the query hints
+     * @param timeout   the statement timeout, {@link Duration#ZERO} for none
+     * @return one {@link IgniteResult} per binding, in order, with the update count and the generated values as rows
+     */
+    Flux<IgniteResult> executeGenerated(GeneratedKeys keys, List<Binding> bindings, int fetchSize, QueryHints hints, Duration timeout) {
+        Objects.requireNonNull(keys, "keys must not be null");
+        Objects.requireNonNull(bindings, "bindings must not be null");
+
+        return submit(() -> {
+                    SqlFieldsQuery query = createCommand(keys.getTemplate(), null, Binding.EMPTY, fetchSize, hints, timeout);
+                    Collection<Binding> executions = bindings.isEmpty() ? this.emptyBinding : bindings;
+                    List<Object[]> values = new ArrayList<>(executions.size());
+                    List<Object[]> batchArgs = new ArrayList<>(executions.size());
+
+                    for (Binding binding : executions) {
+                        Object[] generated = new Object[keys.getValueCount()];
+
+                        for (int i = 0; i < generated.length; i++) {
+                            generated[i] = this.transport.nextValue(keys.getSequenceName(query.getSchema(), i), this.configuration.getGeneratedKeyReserveSize());
+                        }
+
+                        values.add(generated);
+                        batchArgs.add(keys.toArgs(binding.getParameters(), generated));
+                    }
+
+                    this.logger.debug("Request:  {} x {}", query, batchArgs.size());
+                    long[] counts = this.transport.updateBatch(query, batchArgs);
+                    invalidateCached(query);
+                    List<IgniteResult> results = new ArrayList<>(counts.length);
+
+                    for (int i = 0; i < counts.length; i++) {
+                        results.add(new IgniteResult(keys.getRowMetadata(), Flux.fromIterable(keys.toRows(values.get(i))), query.getPageSize(),
+                                Mono.just((int) counts[i])));
+                    }
+
+                    return results;
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Runs statements without arguments in order. Consecutive updates are sent together with a single call, queries run
+     * on their own as their rows are read lazily.
+     *
+     * @param fragments the statements
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param hints     the query hints
+     * @param timeout   the statement timeout, {@link Duration#ZERO} for none
+     * @return one {@link IgniteResult} per statement, in order
+     */
+    Flux<IgniteResult> executeScript(List<ParsedStatement.Fragment> fragments, int fetchSize, QueryHints hints, Duration timeout) {
+        Objects.requireNonNull(fragments, "fragments must not be null");
+
+        return Flux.defer(() -> {
+            List<Flux<IgniteResult>> results = new ArrayList<>();
+            List<SqlFieldsQuery> updates = new ArrayList<>();
+
+            for (ParsedStatement.Fragment fragment : fragments) {
+                if (!fragment.isQuery()) {
+                    updates.add(fragment.getTemplate());
+                    continue;
                 }
-                catch (IgniteException e) {
-                    sink.error(e);
+
+                if (!updates.isEmpty()) {
+                    results.add(executeAll(new ArrayList<>(updates), fetchSize, hints, timeout));
+                    updates.clear();
                 }
-            });
+
+                results.add(executeAll(Collections.singletonList(fragment.getTemplate()), fetchSize, hints, timeout));
+            }
+
+            if (!updates.isEmpty()) {
+                results.add(executeAll(updates, fetchSize, hints, timeout));
+            }
+
+            return Flux.concat(results);
         });
     }
 
-    public FieldsQueryCursor<List<?>> execute(SqlFieldsQuery query) {
-        String cacheName = this.ignite.cacheNames().stream().findFirst().get();
-        FieldsQueryCursor<List<?>> cursor = this.ignite.cache(cacheName).query(query);
-        return cursor;
+    /**
+     * Runs several statements without arguments with a single call.
+     *
+     * @param templates the query templates, left unmodified
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param hints     the query hints
+     * @param timeout   the statement timeout, {@link Duration#ZERO} for none
+     * @return one {@link IgniteResult} per statement, in order
+     */
+    Flux<IgniteResult> executeAll(List<SqlFieldsQuery> templates, int fetchSize, QueryHints hints, Duration timeout) {
+        Objects.requireNonNull(templates, "templates must not be null");
+
+        if (templates.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return submit(() -> {
+                    List<SqlFieldsQuery> queries = new ArrayList<>(templates.size());
+
+                    for (SqlFieldsQuery template : templates) {
+                        queries.add(createCommand(template, null, Binding.EMPTY, fetchSize, hints, timeout));
+                    }
+
+                    this.logger.debug("Request:  {}", queries);
+                    List<FieldsQueryCursor<List<?>>> cursors = this.transport.queryAll(queries);
+                    List<IgniteResult> results = new ArrayList<>(cursors.size());
+
+                    for (int i = 0; i < cursors.size(); i++) {
+                        try {
+                            results.add(toResult(cursors.get(i), queries.get(i)));
+                        } catch (RuntimeException e) {
+                            cursors.subList(i, cursors.size()).forEach(FieldsQueryCursor::close);
+                            throw e;
+                        }
+                    }
+
+                    return results;
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Loads rows through data streamers, see {@link IgniteConnection#stream(String, Publisher)}.
+     *
+     * @param sql  the {@code INSERT} statement
+     * @param rows the arguments of each row
+     * @return the number of rows submitted
+     */
+    Mono<Long> stream(String sql, Publisher<Object[]> rows) {
+        Objects.requireNonNull(sql, "sql must not be null");
+        Objects.requireNonNull(rows, "rows must not be null");
+
+        int bufferSize = this.configuration.getStreamingPerNodeBufferSize();
+
+        return Mono.usingWhen(
+                submit(() -> this.transport.openIngest(this.configuration.getSchema(), bufferSize, this.configuration.getStreamingPerNodeParallelOperations(),
+                        this.configuration.getStreamingFlushFrequency().toMillis())),
+                // a chunk is only requested once the streamers accepted the previous one
+                ingest -> Flux.from(rows)
+                        .buffer(bufferSize)
+                        .concatMap(chunk -> submit(() -> {
+                            long count = ingest.load(sql, chunk);
+                            invalidateCached(new SqlFieldsQuery(sql));
+                            return count;
+                        }), 1)
+                        .reduce(0L, Long::sum),
+                ingest -> run(ingest::close),
+                (ingest, e) -> run(ingest::close),
+                ingest -> run(ingest::close));
+    }
+
+    /**
+     * Streams the changes of a table, see {@link IgniteConnection#changes(String, CacheEntryEventSerializableFilter, boolean)}.
+     *
+     * @param table    the table, optionally qualified by its schema
+     * @param filter   the filter of changes, {@code null} to pass every change
+     * @param snapshot whether the rows of the table are emitted first
+     * @return the changes
+     */
+    Flux<RowChange> changes(String table, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter, boolean snapshot) {
+        Objects.requireNonNull(table, "table must not be null");
+
+        List<SqlTokenizer.Token> tokens = SqlTokenizer.tokenize(table);
+        boolean qualified = tokens.size() == 3 && tokens.get(1).isSymbol('.');
+
+        if ((tokens.size() != 1 && !qualified) || !isIdentifier(tokens.get(0)) || !isIdentifier(tokens.get(tokens.size() - 1))) {
+            throw new IllegalArgumentException(String.format("'%s' is not a table name", table));
+        }
+
+        String schema = qualified ? tokens.get(0).getIdentifier() : this.configuration.getSchema().toUpperCase();
+        String tableName = tokens.get(tokens.size() - 1).getIdentifier();
+
+        return Flux.usingWhen(
+                submit(() -> {
+                    // the snapshot is read lazily, so its rows are read after the listener is registered and no change
+                    // is missed in between, though changes made meanwhile may also show in the snapshot
+                    SqlFieldsQuery query = new SqlFieldsQuery("SELECT * FROM " + table).setSchema(this.configuration.getSchema()).setLazy(true);
+
+                    this.logger.debug("Request:  {}", query);
+                    FieldsQueryCursor<List<?>> cursor = this.transport.query(query);
+                    ChangeStream stream;
+
+                    try {
+                        stream = new ChangeStream(cursor, this.statementCache.getRowMetadata(query.getSql(), cursor),
+                                this.configuration.getChangeStreamBufferSize());
+                    } catch (RuntimeException e) {
+                        cursor.close();
+                        throw e;
+                    }
+
+                    try {
+                        stream.listen(this.transport, schema, tableName, filter);
+                    } catch (RuntimeException e) {
+                        stream.close();
+                        throw e;
+                    }
+
+                    if (!snapshot) {
+                        cursor.close();
+                    }
+
+                    return stream;
+                }),
+                stream -> (snapshot ? IgniteResult.toResult(stream.getSnapshot(), stream.getRowMetadata(), this.configuration.getPageSize(), this.scheduler,
+                        this.queryMetrics)
+                        .map((row, rowMetadata) -> new RowChange(RowChange.Type.INITIAL, (IgniteRow) row)) : Flux.<RowChange>empty())
+                        .concatWith(stream.getChanges()),
+                stream -> run(stream::close),
+                (stream, e) -> run(stream::close),
+                stream -> run(stream::close));
+    }
+
+    /**
+     * Opens a cursor for the {@code query}. Blocks, so must only be called on the connection {@link Scheduler}.
+     *
+     * @param query the query
+     * @return the cursor
+     */
+    FieldsQueryCursor<List<?>> query(SqlFieldsQuery query) {
+        return this.transport.query(query);
+    }
+
+    IgniteTransport getTransport() {
+        return this.transport;
+    }
+
+    IgniteConnectionConfiguration getConfiguration() {
+        return this.configuration;
+    }
+
+    StatementCache getStatementCache() {
+        return this.statementCache;
     }
 
     public Iterator<SqlFieldsQuery> prepareCommand(final String sql, final List<Binding> bindings) {
+        return prepareCommand(sql, bindings, 0, null);
+    }
+
+    /**
+     * Creates one query per binding.
+     *
+     * @param sql       the SQL text
+     * @param bindings  the bindings, one query is created for each
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param lazy      whether the query runs lazily, or {@code null} to use the connection default
+     * @return the queries
+     */
+    public Iterator<SqlFieldsQuery> prepareCommand(final String sql, final List<Binding> bindings, final int fetchSize, @Nullable final Boolean lazy) {
         Objects.requireNonNull(sql, "sql must not be null");
+
+        QueryHints hints = lazy != null ? QueryHints.builder().lazy(lazy).build() : QueryHints.NONE;
+
+        return prepareCommand(new SqlFieldsQuery(sql), null, bindings, fetchSize, hints, this.configuration.getStatementTimeout());
+    }
+
+    /**
+     * Creates one query per binding, each a copy of the {@code fragment} template. Queries whose key predicate is bound
+     * to a value are restricted to the partition of that value.
+     *
+     * @param fragment  the statement, left unmodified
+     * @param bindings  the bindings, one query is created for each
+     * @param fetchSize the cursor page size, or {@code 0} to use the connection default
+     * @param hints     the query hints
+     * @param timeout   the statement timeout, {@link Duration#ZERO} for none
+     * @return the queries
+     */
+    Iterator<SqlFieldsQuery> prepareCommand(final ParsedStatement.Fragment fragment, final List<Binding> bindings, final int fetchSize, final QueryHints hints,
+                                            final Duration timeout) {
+        Objects.requireNonNull(fragment, "fragment must not be null");
+
+        return prepareCommand(fragment.getTemplate(), fragment.getKeyPredicate(), bindings, fetchSize, hints, timeout);
+    }
+
+    private Iterator<SqlFieldsQuery> prepareCommand(SqlFieldsQuery template, @Nullable KeyPredicate keyPredicate, List<Binding> bindings, int fetchSize,
+                                                    QueryHints hints, Duration timeout) {
+        Objects.requireNonNull(template, "template must not be null");
         Objects.requireNonNull(bindings, "bindings must not be null");
 
         Iterator<Binding> bindingIterator = bindings.isEmpty() ? emptyBinding.iterator() : bindings.iterator();
@@ -118,18 +864,181 @@ public class ClientWrapper {
             public SqlFieldsQuery next() {
                 Binding binding = bindingIterator.next();
 
-                SqlFieldsQuery command = createCommand(sql, binding);
+                SqlFieldsQuery command = createCommand(template, keyPredicate, binding, fetchSize, hints, timeout);
                 logger.debug("Request:  {}", command);
                 return command;
             }
         };
     }
 
-    private SqlFieldsQuery createCommand(String sql, Binding binding) {
-        SqlFieldsQuery query = new SqlFieldsQuery(sql);
+    private void schedule(Runnable task) {
+        ExecutorService lane = this.pinnedLane;
+
+        if (lane != null) {
+            lane.execute(task);
+        } else {
+            this.worker.schedule(task);
+        }
+    }
+
+    /**
+     * Hands the pinned lane back once no transaction is bound to it. Runs on the lane, so tasks submitted afterwards
+     * run on the connection worker again.
+     */
+    private void unpinIfIdle() {
+        ExecutorService lane = this.pinnedLane;
+
+        if (lane != null && !this.transport.inTransaction()) {
+            this.pinnedLane = null;
+            this.transactionLanes.release(lane);
+        }
+    }
+
+    private IgniteResult toResult(FieldsQueryCursor<List<?>> cursor, SqlFieldsQuery query) {
+        return toResult(cursor, query, this.scheduler);
+    }
+
+    private IgniteResult toResult(FieldsQueryCursor<List<?>> cursor, SqlFieldsQuery query, Scheduler scheduler) {
+        if (this.transport.isQuery(cursor, query)) {
+            return IgniteResult.toResult(cursor, this.statementCache.getRowMetadata(query.getSql(), cursor), query.getPageSize(), scheduler, this.queryMetrics);
+        }
+
+        List<List<?>> items = cursor.getAll();
+
+        invalidateCached(query);
+
+        Long updCnt = (Long) items.get(0).get(0);
+
+        return IgniteResult.toResult(updCnt.intValue());
+    }
+
+    /**
+     * Splits {@code query} into one query per range of partitions. Blocks, so must only be called on the connection
+     * {@link Scheduler}.
+     *
+     * @return the queries, {@code null} if the tables of the query are not partitioned alike
+     */
+    @Nullable
+    private List<SqlFieldsQuery> split(SqlFieldsQuery query, int parallelism) {
+        Set<String> tables = ResultCache.tables(query.getSql(), query.getSchema());
+
+        if (tables == null || tables.isEmpty()) {
+            return null;
+        }
+
+        int partitions = -1;
+
+        for (String table : tables) {
+            int dot = table.indexOf('.');
+            int count = this.transport.partitions(table.substring(0, dot), table.substring(dot + 1));
+
+            if (count <= 0 || (partitions != -1 && count != partitions)) {
+                return null;
+            }
+
+            partitions = count;
+        }
+
+        int rangeCount = Math.min(parallelism, partitions);
+        List<SqlFieldsQuery> ranges = new ArrayList<>(rangeCount);
+
+        for (int i = 0; i < rangeCount; i++) {
+            int from = (int) ((long) partitions * i / rangeCount);
+            int[] range = new int[(int) ((long) partitions * (i + 1) / rangeCount) - from];
+
+            for (int p = 0; p < range.length; p++) {
+                range[p] = from + p;
+            }
+
+            ranges.add(new SqlFieldsQuery(query).setPartitions(range));
+        }
+
+        return ranges;
+    }
+
+    private Mono<IgniteResult> executeRanges(List<SqlFieldsQuery> ranges, int parallelism, boolean ordered) {
+        // the first range is executed up front for the metadata of the rows, the others as the rows are requested
+        return executeRange(ranges.get(0)).map(first -> {
+            Flux<Flux<IgniteRow>> rangeRows = Flux.range(0, ranges.size())
+                    .map(i -> i == 0 ? rows(first) : executeRange(ranges.get(i)).flatMapMany(ClientWrapper::rows));
+
+            Flux<IgniteRow> rows = ordered ? rangeRows.flatMapSequential(Function.identity(), parallelism)
+                    : rangeRows.flatMap(Function.identity(), parallelism);
+
+            return new IgniteResult(first.getRowMetadata(), rows, ranges.get(0).getPageSize(), Mono.empty());
+        });
+    }
+
+    private Mono<IgniteResult> executeRange(SqlFieldsQuery query) {
+        // each range fetches its pages on a worker of its own, released once its rows are consumed
+        Scheduler scheduler = Schedulers.single(this.configuration.getExecutionScheduler());
+
+        return execute(query, scheduler)
+                .map(result -> new IgniteResult(result.getRowMetadata(), rows(result).doFinally(signal -> scheduler.dispose()), query.getPageSize(), Mono.empty()))
+                .doOnError(e -> scheduler.dispose())
+                .doOnCancel(scheduler::dispose);
+    }
+
+    private static Flux<IgniteRow> rows(IgniteResult result) {
+        return result.map((row, rowMetadata) -> (IgniteRow) row);
+    }
+
+    private SqlFieldsQuery createCommand(SqlFieldsQuery template, @Nullable KeyPredicate keyPredicate, Binding binding, int fetchSize, QueryHints hints,
+                                         Duration timeout) {
+        SqlFieldsQuery query = new SqlFieldsQuery(template);
+
+        if (query.getSchema() == null) {
+            query.setSchema(this.configuration.getSchema());
+        }
+
+        query.setArgs(toArgs(binding));
+        query.setPageSize(fetchSize > 0 ? fetchSize : this.configuration.getPageSize());
+        query.setLazy(this.configuration.isLazy());
+        hints.applyTo(query);
 
-        query.setArgs(binding.getParameters().values().toArray(new Object[0]));
+        if (!timeout.isZero()) {
+            query.setTimeout((int) Math.min(timeout.toMillis(), Integer.MAX_VALUE), TimeUnit.MILLISECONDS);
+        }
+
+        if (keyPredicate != null) {
+            Object key = binding.get(keyPredicate.getParameterIndex());
+
+            if (key != null) {
+                int partition = this.transport.partition(query.getSchema(), keyPredicate, key);
+
+                if (partition >= 0) {
+                    query.setPartitions(partition);
+                }
+            }
+        }
 
         return query;
     }
+
+    /**
+     * Drops the cached results of the tables an update writes. Continuous queries report changes asynchronously, so
+     * without this a connection could read its own update from before the change.
+     */
+    private void invalidateCached(SqlFieldsQuery update) {
+        if (this.resultCache.isEnabled()) {
+            String schema = update.getSchema() != null ? update.getSchema() : this.configuration.getSchema();
+
+            this.resultCache.invalidate(ResultCache.tables(update.getSql(), schema));
+        }
+    }
+
+    private static boolean isIdentifier(SqlTokenizer.Token token) {
+        return token.getType() == SqlTokenizer.TokenType.WORD || token.getType() == SqlTokenizer.TokenType.QUOTED_IDENTIFIER;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> asRow(List<?> values) {
+        return (List<Object>) values;
+    }
+
+    private static Object[] toArgs(Binding binding) {
+        // Ignite reads the arguments only when the query starts, so the array is passed as is. A statement may bind its
+        // values again after executing, so anything keeping the arguments longer, like cache keys or grouped rows, copies them
+        return binding.getParameters();
+    }
 }
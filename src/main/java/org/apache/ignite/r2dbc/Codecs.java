@@ -0,0 +1,137 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.internal.util.IgniteUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of conversions from the values Ignite returns to the types requested from {@link IgniteRow#get}. Only
+ * lossless widenings and the conversions of JDBC 4.2 between {@code java.sql} and {@code java.time} types are offered.
+ */
+final class Codecs {
+
+    private static final Codec<Object> IDENTITY = value -> value;
+
+    // value type -> requested type -> conversion, never modified after class initialization
+    private static final Map<Class<?>, Map<Class<?>, Codec<?>>> CONVERSIONS = new HashMap<>();
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Codec<?>>> RESOLVED = new ConcurrentHashMap<>();
+
+    static {
+        register(Byte.class, Short.class, value -> (short) (byte) value);
+        register(Byte.class, Integer.class, value -> (int) (byte) value);
+        register(Byte.class, Long.class, value -> (long) (byte) value);
+        register(Byte.class, Float.class, value -> (float) (byte) value);
+        register(Byte.class, Double.class, value -> (double) (byte) value);
+        register(Byte.class, BigInteger.class, value -> BigInteger.valueOf((byte) value));
+        register(Byte.class, BigDecimal.class, value -> BigDecimal.valueOf((byte) value));
+
+        register(Short.class, Integer.class, value -> (int) (short) value);
+        register(Short.class, Long.class, value -> (long) (short) value);
+        register(Short.class, Float.class, value -> (float) (short) value);
+        register(Short.class, Double.class, value -> (double) (short) value);
+        register(Short.class, BigInteger.class, value -> BigInteger.valueOf((short) value));
+        register(Short.class, BigDecimal.class, value -> BigDecimal.valueOf((short) value));
+
+        register(Integer.class, Long.class, value -> (long) (int) value);
+        register(Integer.class, Double.class, value -> (double) (int) value);
+        register(Integer.class, BigInteger.class, value -> BigInteger.valueOf((int) value));
+        register(Integer.class, BigDecimal.class, value -> BigDecimal.valueOf((int) value));
+
+        register(Long.class, BigInteger.class, value -> BigInteger.valueOf((long) value));
+        register(Long.class, BigDecimal.class, value -> BigDecimal.valueOf((long) value));
+
+        register(Float.class, Double.class, value -> (double) (float) value);
+        register(Float.class, BigDecimal.class, value -> new BigDecimal(value.toString()));
+
+        register(Double.class, BigDecimal.class, value -> BigDecimal.valueOf((double) value));
+
+        register(BigInteger.class, BigDecimal.class, value -> new BigDecimal((BigInteger) value));
+
+        register(Timestamp.class, Instant.class, value -> ((Timestamp) value).toInstant());
+        register(Timestamp.class, LocalDateTime.class, value -> ((Timestamp) value).toLocalDateTime());
+        register(Timestamp.class, OffsetDateTime.class, value -> ((Timestamp) value).toLocalDateTime().atZone(ZoneId.systemDefault()).toOffsetDateTime());
+        register(java.sql.Date.class, LocalDate.class, value -> ((java.sql.Date) value).toLocalDate());
+        register(Time.class, LocalTime.class, value -> ((Time) value).toLocalTime());
+        // java.sql.Date and Time do not support toInstant()
+        register(Date.class, Instant.class, value -> Instant.ofEpochMilli(((Date) value).getTime()));
+
+        register(LocalDateTime.class, Timestamp.class, value -> Timestamp.valueOf((LocalDateTime) value));
+        register(LocalDate.class, java.sql.Date.class, value -> java.sql.Date.valueOf((LocalDate) value));
+        register(LocalTime.class, Time.class, value -> Time.valueOf((LocalTime) value));
+        register(Instant.class, Timestamp.class, value -> Timestamp.from((Instant) value));
+
+        register(byte[].class, ByteBuffer.class, value -> ByteBuffer.wrap((byte[]) value));
+    }
+
+    private Codecs() {
+    }
+
+    /**
+     * Finds the conversion of values of {@code valueType} to {@code type}.
+     *
+     * @param valueType the class of the values
+     * @param type      the requested type
+     * @param <T>       the requested type
+     * @return the conversion
+     * @throws IllegalArgumentException if values of {@code valueType} cannot be converted to {@code type}
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Codec<T> find(Class<?> valueType, Class<T> type) {
+        return (Codec<T>) RESOLVED.computeIfAbsent(valueType, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type, key -> resolve(valueType, type));
+    }
+
+    private static Codec<?> resolve(Class<?> valueType, Class<?> type) {
+        Class<?> target = IgniteUtils.box(type);
+
+        if (target.isAssignableFrom(valueType)) {
+            return IDENTITY;
+        }
+
+        for (Class<?> source = valueType; source != null; source = source.getSuperclass()) {
+            Codec<?> codec = CONVERSIONS.getOrDefault(source, Collections.emptyMap()).get(target);
+
+            if (codec != null) {
+                return codec;
+            }
+        }
+
+        if (target == String.class) {
+            return String::valueOf;
+        }
+
+        throw new IllegalArgumentException(String.format("Cannot decode a value of type %s as %s", valueType.getName(), type.getName()));
+    }
+
+    private static void register(Class<?> valueType, Class<?> type, Codec<?> codec) {
+        CONVERSIONS.computeIfAbsent(valueType, key -> new HashMap<>()).put(type, codec);
+    }
+
+    /**
+     * Converts a non-null column value to the requested type.
+     *
+     * @param <T> the requested type
+     */
+    @FunctionalInterface
+    interface Codec<T> {
+
+        T decode(Object value);
+    }
+}
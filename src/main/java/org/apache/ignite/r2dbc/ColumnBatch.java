@@ -0,0 +1,192 @@
+package org.apache.ignite.r2dbc;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A batch of rows held column by column, emitted by {@link IgniteResult#batches()}. {@code BIGINT} columns are held as
+ * {@code long[]}, {@code INT}, {@code SMALLINT} and {@code TINYINT} columns as {@code int[]}, {@code DOUBLE} and
+ * {@code REAL} columns as {@code double[]} and all other columns as {@code Object[]}. Arrays may be longer than the
+ * batch, only the first {@link #size()} elements are rows. {@code NULL}s of primitive columns are marked in the null
+ * bitmap of the column and leave a zero in the array. Thin client cursors carry no column types, so all their columns
+ * are held as {@code Object[]}.
+ */
+public final class ColumnBatch {
+
+    private final IgniteRowMetadata rowMetadata;
+
+    // long[], int[], double[] or Object[] per column
+    private final Object[] columns;
+
+    private final BitSet[] nulls;
+
+    private final int capacity;
+
+    private int size;
+
+    /**
+     * @param rowMetadata the metadata of the rows
+     * @param capacity    the maximum number of rows
+     */
+    ColumnBatch(IgniteRowMetadata rowMetadata, int capacity) {
+        this.rowMetadata = Objects.requireNonNull(rowMetadata, "rowMetadata must not be null");
+        this.capacity = capacity;
+
+        List<IgniteColumnMetadata> columnMetadatas = rowMetadata.getColumnMetadatas();
+        this.columns = new Object[columnMetadatas.size()];
+        this.nulls = new BitSet[columnMetadatas.size()];
+
+        for (int i = 0; i < this.columns.length; i++) {
+            Class<?> type = columnMetadatas.get(i).getJavaType();
+
+            if (type == Long.class) {
+                this.columns[i] = new long[capacity];
+            } else if (type == Integer.class || type == Short.class || type == Byte.class) {
+                this.columns[i] = new int[capacity];
+            } else if (type == Double.class || type == Float.class) {
+                this.columns[i] = new double[capacity];
+            } else {
+                this.columns[i] = new Object[capacity];
+            }
+
+            this.nulls[i] = new BitSet(capacity);
+        }
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param values the values of the row as returned by the cursor
+     */
+    void add(List<?> values) {
+        List<IgniteColumnMetadata> columnMetadatas = this.rowMetadata.getColumnMetadatas();
+        int row = this.size++;
+
+        for (int i = 0; i < this.columns.length; i++) {
+            Object value = values.get(columnMetadatas.get(i).getIndex());
+            Object column = this.columns[i];
+
+            if (value == null) {
+                this.nulls[i].set(row);
+            }
+
+            if (column instanceof Object[]) {
+                ((Object[]) column)[row] = value;
+            } else if (value != null) {
+                if (column instanceof long[]) {
+                    ((long[]) column)[row] = ((Number) value).longValue();
+                } else if (column instanceof int[]) {
+                    ((int[]) column)[row] = ((Number) value).intValue();
+                } else {
+                    ((double[]) column)[row] = ((Number) value).doubleValue();
+                }
+            }
+        }
+    }
+
+    boolean isFull() {
+        return this.size == this.capacity;
+    }
+
+    /**
+     * Returns the number of rows in this batch.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the metadata of the rows, which also gives the column indexes.
+     *
+     * @return the row metadata
+     */
+    public IgniteRowMetadata getRowMetadata() {
+        return this.rowMetadata;
+    }
+
+    /**
+     * Checks whether a value is {@code NULL}.
+     *
+     * @param column the column index
+     * @param row    the row index, less than {@link #size()}
+     * @return {@code true} if the value is {@code NULL}
+     */
+    public boolean isNull(int column, int row) {
+        return this.nulls[column].get(row);
+    }
+
+    /**
+     * Returns the null bitmap of a column, with a bit set for each row whose value is {@code NULL}.
+     *
+     * @param column the column index
+     * @return the null bitmap, not to be modified
+     */
+    public BitSet getNulls(int column) {
+        return this.nulls[column];
+    }
+
+    /**
+     * Returns the values of a {@code BIGINT} column.
+     *
+     * @param column the column index
+     * @return the values
+     * @throws IllegalArgumentException if the column is not held as {@code long[]}
+     */
+    public long[] getLongs(int column) {
+        return column(column, long[].class);
+    }
+
+    /**
+     * Returns the values of an {@code INT}, {@code SMALLINT} or {@code TINYINT} column.
+     *
+     * @param column the column index
+     * @return the values
+     * @throws IllegalArgumentException if the column is not held as {@code int[]}
+     */
+    public int[] getInts(int column) {
+        return column(column, int[].class);
+    }
+
+    /**
+     * Returns the values of a {@code DOUBLE} or {@code REAL} column.
+     *
+     * @param column the column index
+     * @return the values
+     * @throws IllegalArgumentException if the column is not held as {@code double[]}
+     */
+    public double[] getDoubles(int column) {
+        return column(column, double[].class);
+    }
+
+    /**
+     * Returns the values of a column that is not held as primitives.
+     *
+     * @param column the column index
+     * @return the values as returned by Ignite
+     * @throws IllegalArgumentException if the column is held as primitives
+     */
+    public Object[] getObjects(int column) {
+        return column(column, Object[].class);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnBatch{" +
+                "columns=" + this.columns.length +
+                ", size=" + this.size +
+                '}';
+    }
+
+    private <T> T column(int column, Class<T> type) {
+        Object values = this.columns[column];
+
+        if (!type.isInstance(values)) {
+            throw new IllegalArgumentException(String.format("Column %d is held as %s", column, values.getClass().getSimpleName()));
+        }
+
+        return type.cast(values);
+    }
+}
@@ -3,16 +3,25 @@ package org.apache.ignite.r2dbc;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ColumnSource {
 
+    private static final int MAX_RESOLVED_COLUMNS = 256;
+
     private final List<IgniteColumnMetadata> columns;
 
     private final Map<String, IgniteColumnMetadata> nameKeyedColumns;
 
+    private final Map<String, IgniteColumnMetadata> foldedNameKeyedColumns;
+
+    // names resolved by a case-insensitive match, so each spelling is only folded once
+    private final Map<String, IgniteColumnMetadata> resolvedColumns = new ConcurrentHashMap<>();
+
     ColumnSource(List<IgniteColumnMetadata> columns) {
         this.columns = columns;
         this.nameKeyedColumns = getNameKeyedColumns(columns);
+        this.foldedNameKeyedColumns = getFoldedNameKeyedColumns(columns);
     }
 
     private static Map<String, IgniteColumnMetadata> getNameKeyedColumns(List<IgniteColumnMetadata> columns) {
@@ -33,6 +42,25 @@ public class ColumnSource {
         return byName;
     }
 
+    private static Map<String, IgniteColumnMetadata> getFoldedNameKeyedColumns(List<IgniteColumnMetadata> columns) {
+
+        if (columns.size() == 1) {
+            return Collections.singletonMap(fold(columns.get(0).getName()), columns.get(0));
+        }
+
+        Map<String, IgniteColumnMetadata> byName = new HashMap<>(columns.size() * 2);
+
+        for (IgniteColumnMetadata column : columns) {
+            byName.putIfAbsent(fold(column.getName()), column);
+        }
+
+        return byName;
+    }
+
+    private static String fold(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -105,25 +133,19 @@ public class ColumnSource {
         IgniteColumnMetadata column = this.nameKeyedColumns.get(name);
 
         if (column == null) {
-            name = getColumnName(name, this.nameKeyedColumns.keySet());
-            if (name != null) {
-                column = this.nameKeyedColumns.get(name);
-            }
+            column = this.resolvedColumns.get(name);
         }
 
-        return column;
-    }
-
-    @Nullable
-    private static String getColumnName(String name, Collection<String> names) {
+        if (column == null) {
+            column = this.foldedNameKeyedColumns.get(fold(name));
 
-        for (String s : names) {
-            if (s.equalsIgnoreCase(name)) {
-                return s;
+            // only names of existing columns are kept, a row asking for unknown names does not grow the map
+            if (column != null && this.resolvedColumns.size() < MAX_RESOLVED_COLUMNS) {
+                this.resolvedColumns.put(name, column);
             }
         }
 
-        return null;
+        return column;
     }
 
 }
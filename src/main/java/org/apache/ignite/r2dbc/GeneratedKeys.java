@@ -0,0 +1,257 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.r2dbc.SqlTokenizer.Token;
+import org.apache.ignite.r2dbc.SqlTokenizer.TokenType;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The values an {@code INSERT INTO table (columns) VALUES (...)} statement gets for the columns named in
+ * {@link IgniteStatement#returnGeneratedValues(String...)}. Ignite has no identity columns, so the statement is
+ * rewritten to set those columns to parameters that are filled from a cluster wide sequence per column.
+ */
+final class GeneratedKeys {
+
+    @Nullable
+    private final String schema;
+
+    private final String table;
+
+    private final String[] columns;
+
+    private final SqlFieldsQuery template;
+
+    private final int rows;
+
+    // for plain '?' markers, the index among all parameters of each generated value, null for numbered placeholders
+    @Nullable
+    private final int[] positions;
+
+    private final IgniteRowMetadata rowMetadata;
+
+    private GeneratedKeys(@Nullable String schema, String table, String[] columns, SqlFieldsQuery template, int rows, @Nullable int[] positions) {
+        this.schema = schema;
+        this.table = table;
+        this.columns = columns;
+        this.template = template;
+        this.rows = rows;
+        this.positions = positions;
+
+        List<IgniteColumnMetadata> columnMetadatas = new ArrayList<>(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            columnMetadatas.add(new IgniteColumnMetadata(columns[i], i, -1, -1, Long.class, ResultSetMetaData.columnNoNulls));
+        }
+        this.rowMetadata = new IgniteRowMetadata(columnMetadatas);
+    }
+
+    /**
+     * Rewrites an {@code INSERT} statement to take the values of {@code columns} as extra parameters.
+     *
+     * @param fragment       the statement
+     * @param columns        the generated columns
+     * @param parameterCount the number of parameters bound to the statement
+     * @return the rewritten statement, {@code null} if the statement is not an {@code INSERT}
+     * @throws IllegalArgumentException if the statement does not list its columns, does not insert a {@code VALUES}
+     *                                  list or already sets a generated column
+     */
+    @Nullable
+    static GeneratedKeys of(ParsedStatement.Fragment fragment, String[] columns, int parameterCount) {
+        String sql = fragment.getTemplate().getSql();
+        List<Token> tokens = SqlTokenizer.tokenize(sql);
+
+        if (tokens.size() < 3 || !tokens.get(0).isWord("INSERT") || !tokens.get(1).isWord("INTO")) {
+            return null;
+        }
+
+        int i = 2;
+        String schema = null;
+        String table = tokens.get(i).getIdentifier();
+
+        if (i + 2 < tokens.size() && tokens.get(i + 1).isSymbol('.')) {
+            schema = table;
+            table = tokens.get(i + 2).getIdentifier();
+            i += 2;
+        }
+        i++;
+
+        if (i >= tokens.size() || !tokens.get(i).isSymbol('(')) {
+            throw new IllegalArgumentException(String.format("Generated values require the column list of the INSERT statement: %s", sql));
+        }
+
+        String[] generated = new String[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            generated[c] = identifier(columns[c]);
+        }
+
+        int columnList = i;
+
+        for (i++; i < tokens.size() && !tokens.get(i).isSymbol(')'); i++) {
+            Token token = tokens.get(i);
+
+            if ((token.getType() == TokenType.WORD || token.getType() == TokenType.QUOTED_IDENTIFIER)
+                    && Arrays.asList(generated).contains(token.getIdentifier())) {
+                throw new IllegalArgumentException(String.format("Column %s is generated and must not be set by the statement: %s", token.getIdentifier(), sql));
+            }
+        }
+
+        if (i + 2 >= tokens.size() || !tokens.get(i + 1).isWord("VALUES")) {
+            throw new IllegalArgumentException(String.format("Generated values require an INSERT statement with a VALUES list: %s", sql));
+        }
+
+        // the open parenthesis of each row of the VALUES list
+        List<Token> rowStarts = new ArrayList<>();
+        boolean numbered = false;
+        String prefix = "?";
+        int depth = 0;
+
+        for (i += 2; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+
+            if (token.isSymbol('(')) {
+                if (depth++ == 0) {
+                    rowStarts.add(token);
+                }
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && !token.isSymbol(',')) {
+                throw new IllegalArgumentException(String.format("Generated values require an INSERT statement with a VALUES list: %s", sql));
+            }
+        }
+
+        for (Token token : tokens) {
+            if (token.getType() == TokenType.PARAMETER && token.getText().length() > 1) {
+                numbered = true;
+                prefix = token.getText().substring(0, 1);
+                break;
+            }
+        }
+
+        StringBuilder rewritten = new StringBuilder(sql.length() + 16 * rowStarts.size());
+        int copied = tokens.get(columnList).getStart() + 1;
+
+        rewritten.append(sql, 0, copied);
+        for (String column : columns) {
+            rewritten.append(column).append(", ");
+        }
+
+        int[] positions = numbered ? null : new int[rowStarts.size() * columns.length];
+        int next = parameterCount;
+        int tokenIndex = 0;
+        int plainBefore = 0;
+
+        for (int row = 0; row < rowStarts.size(); row++) {
+            Token start = rowStarts.get(row);
+
+            // the plain markers ahead of this row keep their positions before the generated values of the row
+            for (; tokens.get(tokenIndex) != start; tokenIndex++) {
+                if (tokens.get(tokenIndex).getType() == TokenType.PARAMETER) {
+                    plainBefore++;
+                }
+            }
+
+            rewritten.append(sql, copied, start.getStart() + 1);
+            copied = start.getStart() + 1;
+
+            for (int c = 0; c < columns.length; c++) {
+                if (numbered) {
+                    rewritten.append(prefix).append(++next).append(", ");
+                } else {
+                    positions[row * columns.length + c] = plainBefore + row * columns.length + c;
+                    rewritten.append("?, ");
+                }
+            }
+        }
+
+        rewritten.append(sql, copied, sql.length());
+
+        SqlFieldsQuery template = new SqlFieldsQuery(fragment.getTemplate()).setSql(rewritten.toString());
+
+        return new GeneratedKeys(schema, table, columns, template, rowStarts.size(), positions);
+    }
+
+    /**
+     * Returns the rewritten statement. Templates are shared and must be copied before they are modified.
+     *
+     * @return the query template
+     */
+    SqlFieldsQuery getTemplate() {
+        return this.template;
+    }
+
+    /**
+     * @return the number of values generated per execution
+     */
+    int getValueCount() {
+        return this.rows * this.columns.length;
+    }
+
+    /**
+     * Returns the name of the sequence the values of the {@code i}th generated value are taken from.
+     *
+     * @param defaultSchema the schema the statement runs in
+     * @param i             the index of the value, less than {@link #getValueCount()}
+     * @return the sequence name
+     */
+    String getSequenceName(String defaultSchema, int i) {
+        String column = identifier(this.columns[i % this.columns.length]);
+
+        return "SQL_" + (this.schema != null ? this.schema : defaultSchema.toUpperCase()) + "_" + this.table + "_" + column + "_SEQ";
+    }
+
+    /**
+     * Combines the bound parameters with the generated values.
+     *
+     * @param parameters the bound parameters
+     * @param values     the generated values, row by row
+     * @return the arguments of the rewritten statement
+     */
+    Object[] toArgs(Object[] parameters, Object[] values) {
+        Object[] args = new Object[parameters.length + values.length];
+
+        if (this.positions == null) {
+            System.arraycopy(parameters, 0, args, 0, parameters.length);
+            System.arraycopy(values, 0, args, parameters.length, values.length);
+            return args;
+        }
+
+        int parameter = 0;
+        int value = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            args[i] = value < values.length && this.positions[value] == i ? values[value++] : parameters[parameter++];
+        }
+
+        return args;
+    }
+
+    /**
+     * Returns the generated values as rows, one row per inserted row.
+     *
+     * @param values the generated values, row by row
+     * @return the rows
+     */
+    List<IgniteRow> toRows(Object[] values) {
+        List<IgniteRow> rows = new ArrayList<>(this.rows);
+
+        for (int row = 0; row < this.rows; row++) {
+            rows.add(IgniteRow.toRow(Arrays.asList(values).subList(row * this.columns.length, (row + 1) * this.columns.length), this.rowMetadata));
+        }
+
+        return rows;
+    }
+
+    IgniteRowMetadata getRowMetadata() {
+        return this.rowMetadata;
+    }
+
+    private static String identifier(String column) {
+        List<Token> tokens = SqlTokenizer.tokenize(column);
+
+        return tokens.size() == 1 ? tokens.get(0).getIdentifier() : column;
+    }
+}
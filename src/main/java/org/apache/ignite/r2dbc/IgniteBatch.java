@@ -1,11 +1,10 @@
 package org.apache.ignite.r2dbc;
 
 import io.r2dbc.spi.Batch;
-import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -13,10 +12,24 @@ public class IgniteBatch implements Batch {
 
     private final ClientWrapper client;
 
+    private final QueryHints hints;
+
+    private final Duration timeout;
+
     private final List<String> statements = new ArrayList<>();
 
     IgniteBatch(ClientWrapper client) {
+        this(client, QueryHints.NONE, client.getConfiguration().getStatementTimeout());
+    }
+
+    /**
+     * @param hints   the hints of each statement
+     * @param timeout the timeout of each statement, {@link Duration#ZERO} for none
+     */
+    IgniteBatch(ClientWrapper client, QueryHints hints, Duration timeout) {
         this.client = Objects.requireNonNull(client, "client must not be null");
+        this.hints = Objects.requireNonNull(hints, "hints must not be null");
+        this.timeout = Objects.requireNonNull(timeout, "timeout must not be null");
     }
 
     @Override
@@ -29,21 +42,15 @@ public class IgniteBatch implements Batch {
 
     @Override
     public Flux<IgniteResult> execute() {
-        return Flux.fromIterable(this.statements)
-                .flatMapIterable(statement -> () -> this.client.prepareCommand(statement, Collections.emptyList()))
-                .map(client::execute)
-                .map(command -> {
-                    QueryCursorImpl<List<?>> cursor = (QueryCursorImpl<List<?>>) command;
-                    if (cursor.isQuery()) {
-                        return IgniteResult.toResult(cursor);
-                    } else {
-                        List<List<?>> items = cursor.getAll();
-
-                        Integer updCnt = (Integer) items.get(0).get(0);
-
-                        return IgniteResult.toResult(updCnt);
-                    }
-                });
+        return Flux.defer(() -> {
+            List<ParsedStatement.Fragment> fragments = new ArrayList<>();
+
+            for (String statement : this.statements) {
+                fragments.addAll(this.client.getStatementCache().get(statement).getFragments());
+            }
+
+            return this.client.executeScript(fragments, 0, this.hints, this.timeout);
+        });
     }
 
 }
@@ -2,14 +2,22 @@ package org.apache.ignite.r2dbc;
 
 import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.Nullability;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
 import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
 import org.apache.ignite.internal.processors.query.GridQueryFieldMetadata;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSetMetaData;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class IgniteColumnMetadata implements ColumnMetadata {
 
+    private static final ConcurrentMap<String, Optional<Class<?>>> TYPES = new ConcurrentHashMap<>();
+
     private final String name;
 
     private final int idx;
@@ -20,14 +28,24 @@ public class IgniteColumnMetadata implements ColumnMetadata {
 
     private final Class<?> type;
 
+    // the type as Ignite names it, kept for types that are not on the class path of this node
+    @Nullable
+    private final String typeName;
+
     private final int nullability;
 
     public IgniteColumnMetadata(final String name, final int idx, final int scale, final int precision, final Class<?> type, final int nullability) {
+        this(name, idx, scale, precision, type, type != null ? type.getName() : null, nullability);
+    }
+
+    IgniteColumnMetadata(final String name, final int idx, final int scale, final int precision, @Nullable final Class<?> type,
+                         @Nullable final String typeName, final int nullability) {
         this.name = name;
         this.idx = idx;
         this.scale = scale;
         this.precision = precision;
         this.type = type;
+        this.typeName = typeName;
         this.nullability = nullability;
     }
 
@@ -69,19 +87,54 @@ public class IgniteColumnMetadata implements ColumnMetadata {
         return scale;
     }
 
-    public static IgniteColumnMetadata toColumnMetadata(final QueryCursorImpl<List<?>> result, final int i) {
+    /**
+     * Checks whether field {@code i} of {@code result} is described by this metadata.
+     *
+     * @param result the cursor
+     * @param i      the field index
+     * @return {@code true} if the field has the same name, type, scale, precision and nullability
+     */
+    boolean matches(final FieldsQueryCursor<List<?>> result, final int i) {
+        if (!this.name.equals(result.getFieldName(i))) {
+            return false;
+        }
+
+        if (!(result instanceof QueryCursorImpl)) {
+            return this.type == Object.class;
+        }
+
+        GridQueryFieldMetadata gridQueryFieldMetadata = ((QueryCursorImpl<List<?>>) result).fieldsMeta().get(i);
+
+        return Objects.equals(this.typeName, gridQueryFieldMetadata.fieldTypeName())
+                && this.scale == gridQueryFieldMetadata.scale() && this.precision == gridQueryFieldMetadata.precision()
+                && this.nullability == gridQueryFieldMetadata.nullability();
+    }
+
+    public static IgniteColumnMetadata toColumnMetadata(final FieldsQueryCursor<List<?>> result, final int i) {
         String fieldName = result.getFieldName(i);
-        GridQueryFieldMetadata gridQueryFieldMetadata = result.fieldsMeta().get(i);
+
+        if (!(result instanceof QueryCursorImpl)) {
+            // thin client cursors only carry field names
+            return new IgniteColumnMetadata(fieldName, i, -1, -1, Object.class, ResultSetMetaData.columnNullableUnknown);
+        }
+
+        GridQueryFieldMetadata gridQueryFieldMetadata = ((QueryCursorImpl<List<?>>) result).fieldsMeta().get(i);
         int nullability = gridQueryFieldMetadata.nullability();
         int scale = gridQueryFieldMetadata.scale();
         int precision = gridQueryFieldMetadata.precision();
         String typeName = gridQueryFieldMetadata.fieldTypeName();
-        Class<?> type = null;
-        try {
-            type = Class.forName(typeName);
-        } catch (ClassNotFoundException e) {
-            type = null;
-        }
-        return new IgniteColumnMetadata(fieldName, i, scale, precision, type, nullability);
+        return new IgniteColumnMetadata(fieldName, i, scale, precision, resolveType(typeName), typeName, nullability);
+    }
+
+    @Nullable
+    private static Class<?> resolveType(String typeName) {
+        // unknown names are cached too, so a type that is not on the class path is only looked up once
+        return TYPES.computeIfAbsent(typeName, name -> {
+            try {
+                return Optional.of(Class.forName(name));
+            } catch (ClassNotFoundException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
     }
 }
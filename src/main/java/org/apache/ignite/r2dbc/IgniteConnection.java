@@ -4,14 +4,19 @@ import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionMetadata;
 import io.r2dbc.spi.IsolationLevel;
 import io.r2dbc.spi.ValidationDepth;
-import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.jetbrains.annotations.Nullable;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.Logger;
 import reactor.util.Loggers;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import static io.r2dbc.spi.IsolationLevel.READ_UNCOMMITTED;
@@ -22,32 +27,67 @@ public class IgniteConnection implements Connection {
 
     private final ClientWrapper client;
 
+    private final Function<ClientWrapper, Mono<Void>> closer;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
     private IsolationLevel isolationLevel = READ_UNCOMMITTED;
 
+    private TransactionConcurrency transactionConcurrency;
+
+    private Duration statementTimeout;
+
+    private QueryHints queryHints = QueryHints.NONE;
+
     IgniteConnection(ClientWrapper client) {
+        this(client, ClientWrapper::close);
+    }
+
+    /**
+     * @param closer releases the {@code client} once this connection is closed
+     */
+    IgniteConnection(ClientWrapper client, Function<ClientWrapper, Mono<Void>> closer) {
         this.client = Objects.requireNonNull(client, "client must not be null");
+        this.closer = Objects.requireNonNull(closer, "closer must not be null");
+        this.transactionConcurrency = client.getConfiguration().getTransactionConcurrency();
+        this.statementTimeout = client.getConfiguration().getStatementTimeout();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Fails with a {@link io.r2dbc.spi.R2dbcNonTransientException} on connections of the thin transport, thin client
+     * transactions do not cover SQL statements.
+     */
     @Override
     public Mono<Void> beginTransaction() {
+        requireOpen();
+
         return useTransactionStatus(inTransaction -> {
             if (inTransaction) {
                 this.logger.debug("Skipping begin transaction because already in one");
+                return Mono.empty();
             }
-            else {
-                this.client.beginTransaction(isolationLevel);
-            }
-            return Mono.empty();
-        }).onErrorMap(IgniteException.class, IgniteExceptionFactory::convert);
+
+            return this.client.beginTransaction(this.isolationLevel, this.transactionConcurrency);
+        });
     }
 
     @Override
     public Mono<Void> close() {
-        return this.client.close();
+        return Mono.defer(() -> {
+            if (!this.closed.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            return this.closer.apply(this.client);
+        });
     }
 
     @Override
     public Mono<Void> commitTransaction() {
+        requireOpen();
+
         return useTransactionStatus(inTransaction -> {
             if (inTransaction) {
                 return this.client.commit();
@@ -56,16 +96,20 @@ public class IgniteConnection implements Connection {
             }
 
             return Mono.empty();
-        }).onErrorMap(IgniteException.class, IgniteExceptionFactory::convert);
+        });
     }
 
     @Override
     public IgniteBatch createBatch() {
-        return new IgniteBatch(this.client);
+        requireOpen();
+
+        return new IgniteBatch(this.client, this.queryHints, this.statementTimeout);
     }
 
     @Override
     public Mono<Void> createSavepoint(String name) {
+        requireOpen();
+
         throw new UnsupportedOperationException("");
 //        Assert.requireNonNull(name, "name must not be null");
 //
@@ -76,7 +120,188 @@ public class IgniteConnection implements Connection {
 
     @Override
     public IgniteStatement createStatement(String sql) {
-        return new IgniteStatement(this.client, sql);
+        requireOpen();
+
+        return new IgniteStatement(this.client, sql, this.queryHints, this.statementTimeout);
+    }
+
+    /**
+     * Loads rows with the {@code INSERT} statement {@code sql} through Ignite data streamers instead of executing it per
+     * row. Rows are requested from {@code rows} only as fast as the cluster accepts them and are not part of any
+     * transaction. Buffering is configured with {@link IgniteConnectionConfiguration.Builder#streamingPerNodeBufferSize(int)},
+     * {@link IgniteConnectionConfiguration.Builder#streamingPerNodeParallelOperations(int)} and
+     * {@link IgniteConnectionConfiguration.Builder#streamingFlushFrequency(java.time.Duration)}.
+     * <p>
+     * Existing keys are not overwritten. The streamers do not report the rows they skip for them, so the count emitted
+     * is of the rows submitted, not of the rows written. With the thin transport the rows are inserted with batched
+     * executions.
+     *
+     * @param sql  the {@code INSERT} statement with one placeholder per column
+     * @param rows the arguments of each row
+     * @return a {@link Mono} emitting the number of rows submitted once all rows are flushed
+     * @throws NullPointerException  if {@code sql} or {@code rows} is {@code null}
+     * @throws IllegalStateException if this connection is closed
+     */
+    public Mono<Long> stream(String sql, Publisher<Object[]> rows) {
+        requireOpen();
+
+        return this.client.stream(sql, rows);
+    }
+
+    /**
+     * Streams the rows of {@code table} as they are inserted, updated and removed, through a continuous query on the
+     * cache behind the table. Rows have the columns and metadata of {@code SELECT *} on the table. Changes are held
+     * until they are requested, up to {@link IgniteConnectionConfiguration.Builder#changeStreamBufferSize(int)}. Once
+     * the buffer overflows, later changes are dropped and the stream fails after the buffered changes. The stream runs
+     * until it is cancelled and is not part of any transaction.
+     * <p>
+     * With {@code snapshot}, the rows the table holds are emitted first as {@link RowChange.Type#INITIAL} changes. A
+     * change made while the snapshot is read may show in the snapshot and again as a change. Changes are only available
+     * with the thick transport.
+     *
+     * @param table    the table, optionally qualified by its schema
+     * @param filter   the filter of changes, run on the nodes holding the rows with keys and values as
+     *                 {@link org.apache.ignite.binary.BinaryObject}s, so its class must be available on every server node,
+     *                 {@code null} to pass every change
+     * @param snapshot whether the rows of the table are emitted first
+     * @return a {@link Flux} of the changes
+     * @throws NullPointerException     if {@code table} is {@code null}
+     * @throws IllegalArgumentException if {@code table} is not a table name
+     * @throws IllegalStateException    if this connection is closed
+     */
+    public Flux<RowChange> changes(String table, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter, boolean snapshot) {
+        requireOpen();
+
+        return this.client.changes(table, filter, snapshot);
+    }
+
+    /**
+     * Streams the rows of {@code table} as they are inserted, updated and removed, see
+     * {@link #changes(String, CacheEntryEventSerializableFilter, boolean)}.
+     *
+     * @param table the table, optionally qualified by its schema
+     * @return a {@link Flux} of the changes
+     */
+    public Flux<RowChange> changes(String table) {
+        return changes(table, null, false);
+    }
+
+    /**
+     * Runs {@code work} in a transaction that is committed once {@code work} completes and rolled back if it fails. The
+     * whole unit of work, including beginning and committing the transaction, is replayed as configured by
+     * {@code retry}, for example with {@link TransactionRetry#onConflict(long, java.time.Duration)}.
+     *
+     * @param work  the unit of work, subscribed once per attempt
+     * @param retry the retry strategy
+     * @param <T>   the type of the result
+     * @return a {@link Mono} emitting the result of the last attempt
+     * @throws NullPointerException  if {@code work} or {@code retry} is {@code null}
+     * @throws IllegalStateException if this connection is closed
+     */
+    public <T> Mono<T> inTransaction(Function<? super IgniteConnection, ? extends Mono<T>> work, Retry retry) {
+        requireOpen();
+
+        Objects.requireNonNull(work, "work must not be null");
+        Objects.requireNonNull(retry, "retry must not be null");
+
+        return Mono.defer(() -> beginTransaction()
+                .then(work.apply(this))
+                .flatMap(result -> commitTransaction().thenReturn(result))
+                .switchIfEmpty(commitTransaction().then(Mono.empty()))
+                .onErrorResume(e -> rollbackTransaction()
+                        .onErrorResume(rollbackError -> {
+                            e.addSuppressed(rollbackError);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e))))
+                .retryWhen(retry);
+    }
+
+    /**
+     * Returns the concurrency mode of transactions started by {@link #beginTransaction()}.
+     *
+     * @return the transaction concurrency
+     */
+    public TransactionConcurrency getTransactionConcurrency() {
+        return this.transactionConcurrency;
+    }
+
+    /**
+     * Configures the concurrency mode of transactions started by {@link #beginTransaction()}, overriding
+     * {@link IgniteConnectionConfiguration.Builder#transactionConcurrency(TransactionConcurrency)}. Optimistic
+     * transactions take no locks until commit; with {@link IsolationLevel#SERIALIZABLE} a commit fails with
+     * {@link io.r2dbc.spi.R2dbcRollbackException} when another transaction changed the same keys, so it can be retried.
+     *
+     * @param transactionConcurrency the transaction concurrency
+     * @return a {@link Mono} that completes once the concurrency mode is configured
+     * @throws NullPointerException  if {@code transactionConcurrency} is {@code null}
+     * @throws IllegalStateException if this connection is closed
+     */
+    public Mono<Void> setTransactionConcurrency(TransactionConcurrency transactionConcurrency) {
+        requireOpen();
+
+        Objects.requireNonNull(transactionConcurrency, "transactionConcurrency must not be null");
+        this.transactionConcurrency = transactionConcurrency;
+        return Mono.empty();
+    }
+
+    /**
+     * Returns the timeout of statements created by this connection.
+     *
+     * @return the statement timeout, {@link Duration#ZERO} for none
+     */
+    public Duration getStatementTimeout() {
+        return this.statementTimeout;
+    }
+
+    /**
+     * Configures how long statements created afterwards may run on the cluster before they are cancelled, overriding
+     * {@link IgniteConnectionConfiguration.Builder#statementTimeout(Duration)}. Statements may override it with
+     * {@link IgniteStatement#timeout(Duration)}.
+     *
+     * @param statementTimeout the statement timeout, {@link Duration#ZERO} for none
+     * @return a {@link Mono} that completes once the timeout is configured
+     * @throws NullPointerException     if {@code statementTimeout} is {@code null}
+     * @throws IllegalArgumentException if {@code statementTimeout} is negative
+     * @throws IllegalStateException    if this connection is closed
+     */
+    public Mono<Void> setStatementTimeout(Duration statementTimeout) {
+        requireOpen();
+
+        Objects.requireNonNull(statementTimeout, "statementTimeout must not be null");
+
+        if (statementTimeout.isNegative()) {
+            throw new IllegalArgumentException("statementTimeout must not be negative");
+        }
+
+        this.statementTimeout = statementTimeout;
+        return Mono.empty();
+    }
+
+    /**
+     * Returns the hints of statements and batches created by this connection.
+     *
+     * @return the query hints
+     */
+    public QueryHints getQueryHints() {
+        return this.queryHints;
+    }
+
+    /**
+     * Configures the hints of statements and batches created afterwards. Statements may override single hints, for
+     * example with {@link IgniteStatement#collocated(boolean)}. The {@code lazy} hint overrides
+     * {@link IgniteConnectionConfiguration.Builder#lazy(boolean)}.
+     *
+     * @param queryHints the query hints
+     * @return a {@link Mono} that completes once the hints are configured
+     * @throws NullPointerException  if {@code queryHints} is {@code null}
+     * @throws IllegalStateException if this connection is closed
+     */
+    public Mono<Void> setQueryHints(QueryHints queryHints) {
+        requireOpen();
+
+        this.queryHints = Objects.requireNonNull(queryHints, "queryHints must not be null");
+        return Mono.empty();
     }
 
     @Override
@@ -96,6 +321,8 @@ public class IgniteConnection implements Connection {
 
     @Override
     public Mono<Void> releaseSavepoint(String name) {
+        requireOpen();
+
         throw new UnsupportedOperationException("");
 //        Assert.requireNonNull(name, "name must not be null");
 //
@@ -113,6 +340,8 @@ public class IgniteConnection implements Connection {
 
     @Override
     public Mono<Void> rollbackTransaction() {
+        requireOpen();
+
         return useTransactionStatus(inTransaction -> {
             if (inTransaction) {
                 return this.client.rollback();
@@ -120,11 +349,13 @@ public class IgniteConnection implements Connection {
                 this.logger.debug("Skipping rollback because no transaction in progress.");
             }
             return Mono.empty();
-        }).onErrorMap(IgniteException.class, IgniteExceptionFactory::convert);
+        });
     }
 
     @Override
     public Mono<Void> rollbackTransactionToSavepoint(String name) {
+        requireOpen();
+
         throw new UnsupportedOperationException("");
 //        Objects.requireNonNull(name, "name must not be null");
 //
@@ -142,12 +373,16 @@ public class IgniteConnection implements Connection {
 
     @Override
     public Mono<Void> setAutoCommit(boolean autoCommit) {
+        requireOpen();
+
         return Mono.empty();
 //        return Mono.fromRunnable(() -> this.client.getSession().setAutoCommit(autoCommit));
     }
 
     @Override
     public Mono<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+        requireOpen();
+
         Objects.requireNonNull(isolationLevel, "isolationLevel must not be null");
         this.isolationLevel = isolationLevel;
         return Mono.empty();
@@ -164,23 +399,27 @@ public class IgniteConnection implements Connection {
     public Mono<Boolean> validate(ValidationDepth depth) {
         Objects.requireNonNull(depth, "depth must not be null");
 
-        throw new UnsupportedOperationException("");
+        return Mono.defer(() -> {
+            if (this.closed.get()) {
+                return Mono.just(false);
+            }
 
-//        return Mono.fromCallable(() -> {
-//            if (this.client.getSession().isClosed()) {
-//                return false;
-//            }
-//
-//            this.client.query(this.client.prepareCommand("SELECT CURRENT_TIMESTAMP", Collections.emptyList()).next());
-//
-//            return true;
-//        })
-//                .switchIfEmpty(Mono.just(false));
+            return this.client.validate(depth);
+        });
+    }
+
+    private void requireOpen() {
+        // a closed connection hands its client back to the factory, which may give it to another connection
+        if (this.closed.get()) {
+            throw new IllegalStateException("Connection is closed");
+        }
     }
 
     private Mono<Void> useTransactionStatus(Function<Boolean, Publisher<?>> f) {
+        // Ignite transactions are bound to a thread, so transaction state is only touched on the connection scheduler
         return Flux.defer(() -> f.apply(this.client.inTransaction()))
-                .onErrorMap(IgniteException.class, IgniteExceptionFactory::convert)
+                .subscribeOn(this.client.getScheduler())
+                .onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert)
                 .then();
     }
 }
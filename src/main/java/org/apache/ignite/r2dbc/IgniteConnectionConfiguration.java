@@ -0,0 +1,732 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.IgniteDataStreamer;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.AtomicConfiguration;
+import org.apache.ignite.internal.processors.query.QueryUtils;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Connection configuration information for connecting to an Apache Ignite cluster.
+ */
+public final class IgniteConnectionConfiguration {
+
+    /**
+     * Default schema statements run in.
+     */
+    public static final String DEFAULT_SCHEMA = QueryUtils.DFLT_SCHEMA;
+
+    /**
+     * Default maximum number of threads executing blocking Ignite calls.
+     */
+    public static final int DEFAULT_EXECUTION_THREAD_CAP = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+    /**
+     * Default maximum number of tasks that may be queued per execution thread.
+     */
+    public static final int DEFAULT_EXECUTION_QUEUE_CAP = Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+
+    /**
+     * Default maximum number of transactions open at the same time, each pinned to its own thread.
+     */
+    public static final int DEFAULT_TRANSACTION_THREAD_CAP = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+
+    /**
+     * Default concurrency mode of transactions.
+     */
+    public static final TransactionConcurrency DEFAULT_TRANSACTION_CONCURRENCY = TransactionConcurrency.PESSIMISTIC;
+
+    /**
+     * Default number of rows fetched from the cluster per cursor page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = SqlFieldsQuery.DFLT_PAGE_SIZE;
+
+    /**
+     * Default maximum number of released connections kept by {@link IgniteConnectionFactory} for reuse.
+     */
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 64;
+
+    /**
+     * Default time after which an unused released connection is evicted.
+     */
+    public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofMinutes(30);
+
+    /**
+     * Default maximum number of parsed SQL texts kept by the statement cache.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 256;
+
+    /**
+     * Default number of rows buffered per node by data streamers before they are sent.
+     */
+    public static final int DEFAULT_STREAMING_PER_NODE_BUFFER_SIZE = IgniteDataStreamer.DFLT_PER_NODE_BUFFER_SIZE;
+
+    /**
+     * Default number of generated values a node reserves from a sequence at a time.
+     */
+    public static final int DEFAULT_GENERATED_KEY_RESERVE_SIZE = AtomicConfiguration.DFLT_ATOMIC_SEQUENCE_RESERVE_SIZE;
+
+    /**
+     * Default time the rows of a query stay in the result cache.
+     */
+    public static final Duration DEFAULT_RESULT_CACHE_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Default maximum number of row changes buffered per change stream.
+     */
+    public static final int DEFAULT_CHANGE_STREAM_BUFFER_SIZE = 1024;
+
+    /**
+     * Default time a group of updates waits for more rows after its first row.
+     */
+    public static final Duration DEFAULT_GROUPED_UPDATE_WINDOW = Duration.ofMillis(2);
+
+    private static final Scheduler DEFAULT_EXECUTION_SCHEDULER = newExecutionScheduler(DEFAULT_EXECUTION_THREAD_CAP, DEFAULT_EXECUTION_QUEUE_CAP);
+
+    private final Scheduler executionScheduler;
+
+    private final String schema;
+
+    private final int pageSize;
+
+    private final boolean lazy;
+
+    private final int maxIdleConnections;
+
+    private final Duration maxIdleTime;
+
+    private final int statementCacheSize;
+
+    private final int streamingPerNodeBufferSize;
+
+    private final int streamingPerNodeParallelOperations;
+
+    private final Duration streamingFlushFrequency;
+
+    private final int transactionThreadCap;
+
+    private final TransactionConcurrency transactionConcurrency;
+
+    private final Duration statementTimeout;
+
+    private final int generatedKeyReserveSize;
+
+    private final int resultCacheSize;
+
+    private final Duration resultCacheTtl;
+
+    private final int changeStreamBufferSize;
+
+    private final int coalescingMaxRows;
+
+    private final int groupedUpdateSize;
+
+    private final Duration groupedUpdateWindow;
+
+    private IgniteConnectionConfiguration(Scheduler executionScheduler, String schema, int pageSize, boolean lazy, int maxIdleConnections, Duration maxIdleTime,
+                                          int statementCacheSize, int streamingPerNodeBufferSize, int streamingPerNodeParallelOperations,
+                                          Duration streamingFlushFrequency, int transactionThreadCap, TransactionConcurrency transactionConcurrency,
+                                          Duration statementTimeout, int generatedKeyReserveSize, int resultCacheSize, Duration resultCacheTtl,
+                                          int changeStreamBufferSize, int coalescingMaxRows,
+                                          int groupedUpdateSize, Duration groupedUpdateWindow) {
+        this.executionScheduler = Objects.requireNonNull(executionScheduler, "executionScheduler must not be null");
+        this.schema = Objects.requireNonNull(schema, "schema must not be null");
+        this.pageSize = pageSize;
+        this.lazy = lazy;
+        this.maxIdleConnections = maxIdleConnections;
+        this.maxIdleTime = Objects.requireNonNull(maxIdleTime, "maxIdleTime must not be null");
+        this.statementCacheSize = statementCacheSize;
+        this.streamingPerNodeBufferSize = streamingPerNodeBufferSize;
+        this.streamingPerNodeParallelOperations = streamingPerNodeParallelOperations;
+        this.streamingFlushFrequency = Objects.requireNonNull(streamingFlushFrequency, "streamingFlushFrequency must not be null");
+        this.transactionThreadCap = transactionThreadCap;
+        this.transactionConcurrency = Objects.requireNonNull(transactionConcurrency, "transactionConcurrency must not be null");
+        this.statementTimeout = Objects.requireNonNull(statementTimeout, "statementTimeout must not be null");
+        this.generatedKeyReserveSize = generatedKeyReserveSize;
+        this.resultCacheSize = resultCacheSize;
+        this.resultCacheTtl = Objects.requireNonNull(resultCacheTtl, "resultCacheTtl must not be null");
+        this.changeStreamBufferSize = changeStreamBufferSize;
+        this.coalescingMaxRows = coalescingMaxRows;
+        this.groupedUpdateSize = groupedUpdateSize;
+        this.groupedUpdateWindow = Objects.requireNonNull(groupedUpdateWindow, "groupedUpdateWindow must not be null");
+    }
+
+    /**
+     * Returns a new {@link Builder}.
+     *
+     * @return a {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a bounded {@link Scheduler} suitable for running blocking Ignite calls. Every connection takes a single
+     * worker of this scheduler, so all of its work runs on one thread, and at most {@code queuedTaskCap} tasks may wait
+     * for that thread before submissions are rejected.
+     *
+     * @param threadCap     the maximum number of threads
+     * @param queuedTaskCap the maximum number of queued tasks per thread
+     * @return the new {@link Scheduler}
+     */
+    public static Scheduler newExecutionScheduler(int threadCap, int queuedTaskCap) {
+        return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "ignite-r2dbc", 60, true);
+    }
+
+    Scheduler getExecutionScheduler() {
+        return this.executionScheduler;
+    }
+
+    String getSchema() {
+        return this.schema;
+    }
+
+    int getPageSize() {
+        return this.pageSize;
+    }
+
+    boolean isLazy() {
+        return this.lazy;
+    }
+
+    int getMaxIdleConnections() {
+        return this.maxIdleConnections;
+    }
+
+    Duration getMaxIdleTime() {
+        return this.maxIdleTime;
+    }
+
+    int getStatementCacheSize() {
+        return this.statementCacheSize;
+    }
+
+    int getStreamingPerNodeBufferSize() {
+        return this.streamingPerNodeBufferSize;
+    }
+
+    int getStreamingPerNodeParallelOperations() {
+        return this.streamingPerNodeParallelOperations;
+    }
+
+    Duration getStreamingFlushFrequency() {
+        return this.streamingFlushFrequency;
+    }
+
+    int getTransactionThreadCap() {
+        return this.transactionThreadCap;
+    }
+
+    TransactionConcurrency getTransactionConcurrency() {
+        return this.transactionConcurrency;
+    }
+
+    Duration getStatementTimeout() {
+        return this.statementTimeout;
+    }
+
+    int getGeneratedKeyReserveSize() {
+        return this.generatedKeyReserveSize;
+    }
+
+    int getResultCacheSize() {
+        return this.resultCacheSize;
+    }
+
+    Duration getResultCacheTtl() {
+        return this.resultCacheTtl;
+    }
+
+    int getChangeStreamBufferSize() {
+        return this.changeStreamBufferSize;
+    }
+
+    int getCoalescingMaxRows() {
+        return this.coalescingMaxRows;
+    }
+
+    int getGroupedUpdateSize() {
+        return this.groupedUpdateSize;
+    }
+
+    Duration getGroupedUpdateWindow() {
+        return this.groupedUpdateWindow;
+    }
+
+    @Override
+    public String toString() {
+        return "IgniteConnectionConfiguration{" +
+                "executionScheduler=" + this.executionScheduler +
+                ", schema='" + this.schema + '\'' +
+                ", pageSize=" + this.pageSize +
+                ", lazy=" + this.lazy +
+                ", maxIdleConnections=" + this.maxIdleConnections +
+                ", maxIdleTime=" + this.maxIdleTime +
+                ", statementCacheSize=" + this.statementCacheSize +
+                ", streamingPerNodeBufferSize=" + this.streamingPerNodeBufferSize +
+                ", streamingPerNodeParallelOperations=" + this.streamingPerNodeParallelOperations +
+                ", streamingFlushFrequency=" + this.streamingFlushFrequency +
+                ", transactionThreadCap=" + this.transactionThreadCap +
+                ", transactionConcurrency=" + this.transactionConcurrency +
+                ", statementTimeout=" + this.statementTimeout +
+                ", generatedKeyReserveSize=" + this.generatedKeyReserveSize +
+                ", resultCacheSize=" + this.resultCacheSize +
+                ", resultCacheTtl=" + this.resultCacheTtl +
+                ", changeStreamBufferSize=" + this.changeStreamBufferSize +
+                ", coalescingMaxRows=" + this.coalescingMaxRows +
+                ", groupedUpdateSize=" + this.groupedUpdateSize +
+                ", groupedUpdateWindow=" + this.groupedUpdateWindow +
+                '}';
+    }
+
+    /**
+     * A builder for {@link IgniteConnectionConfiguration} instances.
+     * <p>
+     * <i>This class is not threadsafe</i>
+     */
+    public static final class Builder {
+
+        private Scheduler executionScheduler = DEFAULT_EXECUTION_SCHEDULER;
+
+        private String schema = DEFAULT_SCHEMA;
+
+        private int pageSize = DEFAULT_PAGE_SIZE;
+
+        private boolean lazy;
+
+        private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+
+        private Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+
+        private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+        private int streamingPerNodeBufferSize = DEFAULT_STREAMING_PER_NODE_BUFFER_SIZE;
+
+        private int streamingPerNodeParallelOperations;
+
+        private Duration streamingFlushFrequency = Duration.ZERO;
+
+        private int transactionThreadCap = DEFAULT_TRANSACTION_THREAD_CAP;
+
+        private TransactionConcurrency transactionConcurrency = DEFAULT_TRANSACTION_CONCURRENCY;
+
+        private Duration statementTimeout = Duration.ZERO;
+
+        private int generatedKeyReserveSize = DEFAULT_GENERATED_KEY_RESERVE_SIZE;
+
+        private int resultCacheSize;
+
+        private Duration resultCacheTtl = DEFAULT_RESULT_CACHE_TTL;
+
+        private int changeStreamBufferSize = DEFAULT_CHANGE_STREAM_BUFFER_SIZE;
+
+        private int coalescingMaxRows;
+
+        private int groupedUpdateSize;
+
+        private Duration groupedUpdateWindow = DEFAULT_GROUPED_UPDATE_WINDOW;
+
+        private Builder() {
+        }
+
+        /**
+         * Returns a configured {@link IgniteConnectionConfiguration}.
+         *
+         * @return a configured {@link IgniteConnectionConfiguration}
+         */
+        public IgniteConnectionConfiguration build() {
+            return new IgniteConnectionConfiguration(this.executionScheduler, this.schema, this.pageSize, this.lazy, this.maxIdleConnections, this.maxIdleTime,
+                    this.statementCacheSize, this.streamingPerNodeBufferSize, this.streamingPerNodeParallelOperations, this.streamingFlushFrequency,
+                    this.transactionThreadCap, this.transactionConcurrency, this.statementTimeout, this.generatedKeyReserveSize,
+                    this.resultCacheSize, this.resultCacheTtl, this.changeStreamBufferSize,
+                    this.coalescingMaxRows, this.groupedUpdateSize, this.groupedUpdateWindow);
+        }
+
+        /**
+         * Configure the {@link Scheduler} that runs blocking Ignite calls: query execution, cursor page fetches and
+         * transaction control. Defaults to a shared scheduler created with {@link #newExecutionScheduler(int, int)}.
+         *
+         * @param executionScheduler the scheduler
+         * @return this {@link Builder}
+         * @throws NullPointerException if {@code executionScheduler} is {@code null}
+         */
+        public Builder executionScheduler(Scheduler executionScheduler) {
+            this.executionScheduler = Objects.requireNonNull(executionScheduler, "executionScheduler must not be null");
+            return this;
+        }
+
+        /**
+         * Configure the schema that statements without a schema qualifier run in.
+         *
+         * @param schema the schema
+         * @return this {@link Builder}
+         * @throws NullPointerException if {@code schema} is {@code null}
+         */
+        public Builder schema(String schema) {
+            this.schema = Objects.requireNonNull(schema, "schema must not be null");
+            return this;
+        }
+
+        /**
+         * Configure the number of rows fetched per cursor page. Statements may override it with
+         * {@link IgniteStatement#fetchSize(int)}.
+         *
+         * @param pageSize the page size
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code pageSize} is not positive
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be greater than zero");
+            }
+
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Configure lazy query execution. Lazy queries produce rows on the server nodes as pages are requested instead of
+         * materializing the whole result first. Statements may override it with {@link IgniteStatement#lazy(boolean)}.
+         *
+         * @param lazy whether queries run lazily
+         * @return this {@link Builder}
+         */
+        public Builder lazy(boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        /**
+         * Configure how many released connections {@link IgniteConnectionFactory} keeps for reuse.
+         *
+         * @param maxIdleConnections the maximum number of idle connections, {@code 0} disables reuse
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code maxIdleConnections} is negative
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("maxIdleConnections must be greater or equal to zero");
+            }
+
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * Configure how long a released connection may stay unused before {@link IgniteConnectionFactory} evicts it.
+         *
+         * @param maxIdleTime the maximum idle time
+         * @return this {@link Builder}
+         * @throws NullPointerException     if {@code maxIdleTime} is {@code null}
+         * @throws IllegalArgumentException if {@code maxIdleTime} is negative or zero
+         */
+        public Builder maxIdleTime(Duration maxIdleTime) {
+            Objects.requireNonNull(maxIdleTime, "maxIdleTime must not be null");
+
+            if (maxIdleTime.isNegative() || maxIdleTime.isZero()) {
+                throw new IllegalArgumentException("maxIdleTime must be positive");
+            }
+
+            this.maxIdleTime = maxIdleTime;
+            return this;
+        }
+
+        /**
+         * Configure how many parsed SQL texts are cached. Statements created for a cached SQL text reuse its statement
+         * split, placeholder indexes and query templates. The cache is shared by all connections of an
+         * {@link IgniteConnectionFactory} and evicts the least recently used SQL text when full.
+         *
+         * @param statementCacheSize the maximum number of cached SQL texts, {@code 0} disables caching
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code statementCacheSize} is negative
+         */
+        public Builder statementCacheSize(int statementCacheSize) {
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("statementCacheSize must be greater or equal to zero");
+            }
+
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        /**
+         * Configure how many rows {@link IgniteConnection#stream(String, org.reactivestreams.Publisher)} buffers per node
+         * before sending them. Rows are also handed to the streamer in chunks of this size.
+         *
+         * @param streamingPerNodeBufferSize the per node buffer size
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code streamingPerNodeBufferSize} is not positive
+         */
+        public Builder streamingPerNodeBufferSize(int streamingPerNodeBufferSize) {
+            if (streamingPerNodeBufferSize <= 0) {
+                throw new IllegalArgumentException("streamingPerNodeBufferSize must be greater than zero");
+            }
+
+            this.streamingPerNodeBufferSize = streamingPerNodeBufferSize;
+            return this;
+        }
+
+        /**
+         * Configure how many buffers {@link IgniteConnection#stream(String, org.reactivestreams.Publisher)} may have in
+         * flight per node. Once they are all in flight, no more rows are requested until a node acknowledges one.
+         *
+         * @param streamingPerNodeParallelOperations the per node parallel operations, {@code 0} uses the Ignite default
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code streamingPerNodeParallelOperations} is negative
+         */
+        public Builder streamingPerNodeParallelOperations(int streamingPerNodeParallelOperations) {
+            if (streamingPerNodeParallelOperations < 0) {
+                throw new IllegalArgumentException("streamingPerNodeParallelOperations must be greater or equal to zero");
+            }
+
+            this.streamingPerNodeParallelOperations = streamingPerNodeParallelOperations;
+            return this;
+        }
+
+        /**
+         * Configure how often {@link IgniteConnection#stream(String, org.reactivestreams.Publisher)} flushes partially
+         * filled buffers.
+         *
+         * @param streamingFlushFrequency the flush frequency, {@link Duration#ZERO} flushes only when the stream completes
+         * @return this {@link Builder}
+         * @throws NullPointerException     if {@code streamingFlushFrequency} is {@code null}
+         * @throws IllegalArgumentException if {@code streamingFlushFrequency} is negative
+         */
+        public Builder streamingFlushFrequency(Duration streamingFlushFrequency) {
+            Objects.requireNonNull(streamingFlushFrequency, "streamingFlushFrequency must not be null");
+
+            if (streamingFlushFrequency.isNegative()) {
+                throw new IllegalArgumentException("streamingFlushFrequency must not be negative");
+            }
+
+            this.streamingFlushFrequency = streamingFlushFrequency;
+            return this;
+        }
+
+        /**
+         * Configure how many transactions may be open at the same time. Ignite binds a transaction to a thread, so a
+         * connection runs on a thread of its own from {@link IgniteConnection#beginTransaction()} until the transaction
+         * ends. Beginning a transaction fails with {@link io.r2dbc.spi.R2dbcTransientResourceException} while all of
+         * these threads are in use.
+         *
+         * @param transactionThreadCap the maximum number of open transactions
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code transactionThreadCap} is not positive
+         */
+        public Builder transactionThreadCap(int transactionThreadCap) {
+            if (transactionThreadCap <= 0) {
+                throw new IllegalArgumentException("transactionThreadCap must be greater than zero");
+            }
+
+            this.transactionThreadCap = transactionThreadCap;
+            return this;
+        }
+
+        /**
+         * Configure the concurrency mode of transactions. Connections may override it with
+         * {@link IgniteConnection#setTransactionConcurrency(TransactionConcurrency)}.
+         *
+         * @param transactionConcurrency the transaction concurrency
+         * @return this {@link Builder}
+         * @throws NullPointerException if {@code transactionConcurrency} is {@code null}
+         */
+        public Builder transactionConcurrency(TransactionConcurrency transactionConcurrency) {
+            this.transactionConcurrency = Objects.requireNonNull(transactionConcurrency, "transactionConcurrency must not be null");
+            return this;
+        }
+
+        /**
+         * Configure how long a statement may run on the cluster before it is cancelled and fails with
+         * {@link io.r2dbc.spi.R2dbcTimeoutException}. Connections may override it with
+         * {@link IgniteConnection#setStatementTimeout(Duration)}, statements with {@link IgniteStatement#timeout(Duration)}.
+         *
+         * @param statementTimeout the statement timeout, {@link Duration#ZERO} for no timeout
+         * @return this {@link Builder}
+         * @throws NullPointerException     if {@code statementTimeout} is {@code null}
+         * @throws IllegalArgumentException if {@code statementTimeout} is negative
+         */
+        public Builder statementTimeout(Duration statementTimeout) {
+            Objects.requireNonNull(statementTimeout, "statementTimeout must not be null");
+
+            if (statementTimeout.isNegative()) {
+                throw new IllegalArgumentException("statementTimeout must not be negative");
+            }
+
+            this.statementTimeout = statementTimeout;
+            return this;
+        }
+
+        /**
+         * Configure how many values a node reserves at a time from the sequences behind
+         * {@link IgniteStatement#returnGeneratedValues(String...)}. Values of a reserved block are handed out without
+         * a cluster round trip, larger blocks leave larger gaps when a node leaves.
+         *
+         * @param generatedKeyReserveSize the number of values reserved at a time
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code generatedKeyReserveSize} is not positive
+         */
+        public Builder generatedKeyReserveSize(int generatedKeyReserveSize) {
+            if (generatedKeyReserveSize <= 0) {
+                throw new IllegalArgumentException("generatedKeyReserveSize must be greater than zero");
+            }
+
+            this.generatedKeyReserveSize = generatedKeyReserveSize;
+            return this;
+        }
+
+        /**
+         * Configure how many query results are cached for statements marked with
+         * {@link IgniteStatement#cached(boolean)}. Meant for small tables that rarely change: cached rows are read
+         * eagerly, and an entry is dropped as soon as a table it reads changes. Only thick clients cache, as the cache
+         * watches tables with continuous queries. The cache is shared by all connections of an
+         * {@link IgniteConnectionFactory}.
+         *
+         * @param resultCacheSize the maximum number of cached results, {@code 0} disables caching
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code resultCacheSize} is negative
+         */
+        public Builder resultCacheSize(int resultCacheSize) {
+            if (resultCacheSize < 0) {
+                throw new IllegalArgumentException("resultCacheSize must be greater or equal to zero");
+            }
+
+            this.resultCacheSize = resultCacheSize;
+            return this;
+        }
+
+        /**
+         * Configure how long the rows of a query stay in the result cache, see {@link #resultCacheSize(int)}.
+         *
+         * @param resultCacheTtl the time to live of cached results
+         * @return this {@link Builder}
+         * @throws NullPointerException     if {@code resultCacheTtl} is {@code null}
+         * @throws IllegalArgumentException if {@code resultCacheTtl} is not positive
+         */
+        public Builder resultCacheTtl(Duration resultCacheTtl) {
+            Objects.requireNonNull(resultCacheTtl, "resultCacheTtl must not be null");
+
+            if (resultCacheTtl.isNegative() || resultCacheTtl.isZero()) {
+                throw new IllegalArgumentException("resultCacheTtl must be positive");
+            }
+
+            this.resultCacheTtl = resultCacheTtl;
+            return this;
+        }
+
+        /**
+         * Configure how many row changes a change stream buffers while its subscriber does not request them, see
+         * {@link IgniteConnection#changes(String, org.apache.ignite.cache.CacheEntryEventSerializableFilter, boolean)}.
+         * The cluster cannot be slowed down, so a stream whose buffer overflows fails after its buffered changes.
+         *
+         * @param changeStreamBufferSize the maximum number of buffered changes per stream
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code changeStreamBufferSize} is not positive
+         */
+        public Builder changeStreamBufferSize(int changeStreamBufferSize) {
+            if (changeStreamBufferSize <= 0) {
+                throw new IllegalArgumentException("changeStreamBufferSize must be greater than zero");
+            }
+
+            this.changeStreamBufferSize = changeStreamBufferSize;
+            return this;
+        }
+
+        /**
+         * Configure coalescing of identical queries. A query that starts while the same SQL with the same schema,
+         * arguments and hints runs on a connection of the same factory waits for the rows of that execution instead of
+         * running again. Shared rows are read eagerly and replayed to every query that waited for them, so only results
+         * of at most {@code coalescingMaxRows} rows are shared, the queries waiting for a larger result run on their
+         * own. Queries in a transaction, cached and parallel queries are never coalesced. Defaults to {@code 0}, which
+         * disables coalescing.
+         *
+         * @param coalescingMaxRows the maximum number of rows of a shared result, {@code 0} disables coalescing
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code coalescingMaxRows} is negative
+         * @see QueryMetrics#getCoalescedQueries()
+         */
+        public Builder coalescingMaxRows(int coalescingMaxRows) {
+            if (coalescingMaxRows < 0) {
+                throw new IllegalArgumentException("coalescingMaxRows must be greater or equal to zero");
+            }
+
+            this.coalescingMaxRows = coalescingMaxRows;
+            return this;
+        }
+
+        /**
+         * Configure grouping of single row updates. A statement that runs one {@code INSERT}, {@code UPDATE},
+         * {@code MERGE} or {@code DELETE} with a single binding joins the updates of the same SQL with the same schema
+         * and hints from all connections of the same factory, which run as one batched execution once
+         * {@code groupedUpdateSize} rows are gathered or once {@link #groupedUpdateWindow(Duration)} has passed. Each
+         * statement still gets the update count and the failure of its own row. Grouped updates run on a worker of the
+         * execution scheduler rather than on the connection, so a later statement of a connection may overtake an
+         * update whose result it does not wait for. Updates in a transaction and on a thin client connection, whose
+         * protocol has no batched executions, always run on their own. Defaults to {@code 0}, which disables grouping.
+         *
+         * @param groupedUpdateSize the maximum number of rows per batched execution, {@code 0} disables grouping
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code groupedUpdateSize} is negative
+         * @see QueryMetrics#getGroupedUpdates()
+         */
+        public Builder groupedUpdateSize(int groupedUpdateSize) {
+            if (groupedUpdateSize < 0) {
+                throw new IllegalArgumentException("groupedUpdateSize must be greater or equal to zero");
+            }
+
+            this.groupedUpdateSize = groupedUpdateSize;
+            return this;
+        }
+
+        /**
+         * Configure how long a group of updates waits for more rows after its first row, see
+         * {@link #groupedUpdateSize(int)}. Every grouped update takes up to this long more to run. Defaults to
+         * {@link #DEFAULT_GROUPED_UPDATE_WINDOW}.
+         *
+         * @param groupedUpdateWindow the time a group waits for more rows
+         * @return this {@link Builder}
+         * @throws NullPointerException     if {@code groupedUpdateWindow} is {@code null}
+         * @throws IllegalArgumentException if {@code groupedUpdateWindow} is not positive
+         */
+        public Builder groupedUpdateWindow(Duration groupedUpdateWindow) {
+            Objects.requireNonNull(groupedUpdateWindow, "groupedUpdateWindow must not be null");
+
+            if (groupedUpdateWindow.isNegative() || groupedUpdateWindow.isZero()) {
+                throw new IllegalArgumentException("groupedUpdateWindow must be positive");
+            }
+
+            this.groupedUpdateWindow = groupedUpdateWindow;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Builder{" +
+                    "executionScheduler=" + this.executionScheduler +
+                    ", schema='" + this.schema + '\'' +
+                    ", pageSize=" + this.pageSize +
+                    ", lazy=" + this.lazy +
+                    ", maxIdleConnections=" + this.maxIdleConnections +
+                    ", maxIdleTime=" + this.maxIdleTime +
+                    ", statementCacheSize=" + this.statementCacheSize +
+                    ", streamingPerNodeBufferSize=" + this.streamingPerNodeBufferSize +
+                    ", streamingPerNodeParallelOperations=" + this.streamingPerNodeParallelOperations +
+                    ", streamingFlushFrequency=" + this.streamingFlushFrequency +
+                    ", transactionThreadCap=" + this.transactionThreadCap +
+                    ", transactionConcurrency=" + this.transactionConcurrency +
+                    ", statementTimeout=" + this.statementTimeout +
+                    ", generatedKeyReserveSize=" + this.generatedKeyReserveSize +
+                    ", resultCacheSize=" + this.resultCacheSize +
+                    ", resultCacheTtl=" + this.resultCacheTtl +
+                    ", changeStreamBufferSize=" + this.changeStreamBufferSize +
+                    ", coalescingMaxRows=" + this.coalescingMaxRows +
+                    ", groupedUpdateSize=" + this.groupedUpdateSize +
+                    ", groupedUpdateWindow=" + this.groupedUpdateWindow +
+                    '}';
+        }
+    }
+}
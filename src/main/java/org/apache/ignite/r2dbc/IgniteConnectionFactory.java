@@ -0,0 +1,314 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactory;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.client.IgniteClient;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * An implementation of {@link ConnectionFactory} for creating connections to an Apache Ignite cluster.
+ * <p>
+ * All connections share a single {@link Ignite} node or thin {@link IgniteClient}. A connection is a logical session
+ * bound to one worker of the execution scheduler, so creating and closing connections never joins or leaves the
+ * cluster topology. Released connections are kept for reuse and evicted once they stay unused for
+ * {@link IgniteConnectionConfiguration.Builder#maxIdleTime(java.time.Duration)}.
+ */
+public final class IgniteConnectionFactory implements ConnectionFactory, Closeable {
+
+    private final Logger logger = Loggers.getLogger(this.getClass());
+
+    private final Supplier<IgniteTransport> transports;
+
+    private final IgniteConnectionConfiguration configuration;
+
+    private final StatementCache statementCache;
+
+    private final TransactionLanes transactionLanes;
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final ResultCache resultCache;
+
+    private final ReadCoalescer readCoalescer;
+
+    private final UpdateGrouper updateGrouper;
+
+    @Nullable
+    private final AutoCloseable resource;
+
+    private final ConcurrentLinkedDeque<IdleClient> idleClients = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final Disposable eviction;
+
+    /**
+     * Creates a new connection factory sharing {@code ignite} with the default configuration.
+     *
+     * @param ignite the Ignite node, stays running when the factory is closed
+     * @throws NullPointerException if {@code ignite} is {@code null}
+     */
+    public IgniteConnectionFactory(Ignite ignite) {
+        this(ignite, IgniteConnectionConfiguration.builder().build());
+    }
+
+    /**
+     * Creates a new connection factory sharing {@code ignite}.
+     *
+     * @param ignite        the Ignite node, stays running when the factory is closed
+     * @param configuration the configuration
+     * @throws NullPointerException if {@code ignite} or {@code configuration} is {@code null}
+     */
+    public IgniteConnectionFactory(Ignite ignite, IgniteConnectionConfiguration configuration) {
+        this(ignite, configuration, null);
+    }
+
+    /**
+     * Creates a new connection factory sharing the thin {@code client}. Connections use the thin client protocol and
+     * never join the cluster topology.
+     *
+     * @param client the thin client, stays open when the factory is closed
+     * @throws NullPointerException if {@code client} is {@code null}
+     */
+    public IgniteConnectionFactory(IgniteClient client) {
+        this(client, IgniteConnectionConfiguration.builder().build());
+    }
+
+    /**
+     * Creates a new connection factory sharing the thin {@code client}. Connections use the thin client protocol and
+     * never join the cluster topology.
+     *
+     * @param client        the thin client, stays open when the factory is closed
+     * @param configuration the configuration
+     * @throws NullPointerException if {@code client} or {@code configuration} is {@code null}
+     */
+    public IgniteConnectionFactory(IgniteClient client, IgniteConnectionConfiguration configuration) {
+        this(client, configuration, null);
+    }
+
+    /**
+     * @param resource closed together with this factory to release {@code ignite}, {@code null} if it is owned elsewhere
+     */
+    IgniteConnectionFactory(Ignite ignite, IgniteConnectionConfiguration configuration, @Nullable AutoCloseable resource) {
+        this(transports(Objects.requireNonNull(ignite, "ignite must not be null")), configuration, resource);
+    }
+
+    /**
+     * @param resource closed together with this factory to release {@code client}, {@code null} if it is owned elsewhere
+     */
+    IgniteConnectionFactory(IgniteClient client, IgniteConnectionConfiguration configuration, @Nullable AutoCloseable resource) {
+        this(transports(Objects.requireNonNull(client, "client must not be null")), configuration, resource);
+    }
+
+    /**
+     * @param resource closed together with this factory to release the node or thin client, {@code null} if it is owned
+     *                 elsewhere
+     */
+    private IgniteConnectionFactory(Supplier<IgniteTransport> transports, IgniteConnectionConfiguration configuration, @Nullable AutoCloseable resource) {
+        this.transports = transports;
+        this.configuration = Objects.requireNonNull(configuration, "configuration must not be null");
+        this.statementCache = new StatementCache(configuration.getStatementCacheSize());
+        this.transactionLanes = new TransactionLanes(configuration.getTransactionThreadCap());
+        this.resultCache = new ResultCache(configuration.getResultCacheSize(), configuration.getResultCacheTtl());
+        this.readCoalescer = new ReadCoalescer(configuration.getCoalescingMaxRows(), this.queryMetrics);
+        this.updateGrouper = new UpdateGrouper(configuration.getGroupedUpdateSize(), configuration.getGroupedUpdateWindow(), this.queryMetrics);
+        this.resource = resource;
+
+        long period = Math.max(1, configuration.getMaxIdleTime().toMillis() / 2);
+        this.eviction = Schedulers.parallel().schedulePeriodically(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Mono<IgniteConnection> create() {
+        return Mono.fromSupplier(() -> {
+            if (this.closed.get()) {
+                throw new IllegalStateException("Connection factory is closed");
+            }
+
+            return new IgniteConnection(acquire(), this::release);
+        });
+    }
+
+    @Override
+    public IgniteConnectionFactoryMetadata getMetadata() {
+        return IgniteConnectionFactoryMetadata.INSTANCE;
+    }
+
+    /**
+     * Closes idle connections and stops eviction. The shared {@link Ignite} node or {@link IgniteClient} is only closed
+     * if it was started by {@link IgniteConnectionFactoryProvider}, and a node only once every factory sharing it is
+     * closed.
+     *
+     * @return a {@link Mono} that completes once the factory is closed
+     */
+    @Override
+    public Mono<Void> close() {
+        return Mono.defer(() -> {
+            if (!this.closed.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            this.eviction.dispose();
+            this.resultCache.close();
+
+            Flux<Void> idle = Flux.defer(() -> {
+                Flux<Void> closing = Flux.empty();
+
+                for (IdleClient idleClient; (idleClient = this.idleClients.pollFirst()) != null; ) {
+                    this.idleCount.decrementAndGet();
+                    closing = closing.concatWith(idleClient.client.close());
+                }
+
+                return closing;
+            });
+
+            return idle.then(Mono.fromRunnable(() -> {
+                if (this.resource != null) {
+                    try {
+                        this.resource.close();
+                    } catch (Exception e) {
+                        throw IgniteExceptionFactory.convert(e);
+                    }
+                }
+            }));
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "IgniteConnectionFactory{" +
+                "resource=" + this.resource +
+                ", configuration=" + this.configuration +
+                ", idle=" + this.idleCount.get() +
+                '}';
+    }
+
+    /**
+     * Returns the statement cache shared by the connections of this factory.
+     *
+     * @return the {@link StatementCache}
+     */
+    public StatementCache getStatementCache() {
+        return this.statementCache;
+    }
+
+    /**
+     * Returns the query counters of the connections of this factory.
+     *
+     * @return the {@link QueryMetrics}
+     */
+    public QueryMetrics getQueryMetrics() {
+        return this.queryMetrics;
+    }
+
+    /**
+     * Returns the result cache shared by the connections of this factory.
+     *
+     * @return the {@link ResultCache}
+     */
+    public ResultCache getResultCache() {
+        return this.resultCache;
+    }
+
+    int getIdleCount() {
+        return this.idleCount.get();
+    }
+
+    private ClientWrapper acquire() {
+        IdleClient idleClient = this.idleClients.pollFirst();
+
+        if (idleClient != null) {
+            this.idleCount.decrementAndGet();
+            return idleClient.client;
+        }
+
+        return new ClientWrapper(this.transports.get(), this.configuration, this.statementCache, this.transactionLanes, this.queryMetrics, this.resultCache,
+                this.readCoalescer, this.updateGrouper);
+    }
+
+    private Mono<Void> release(ClientWrapper client) {
+        return client.reset()
+                .onErrorResume(e -> {
+                    this.logger.debug("Discarding connection that failed to reset", e);
+                    return client.close().then(Mono.error(e));
+                })
+                .then(Mono.defer(() -> {
+                    if (this.closed.get()) {
+                        return client.close();
+                    }
+
+                    if (this.idleCount.incrementAndGet() > this.configuration.getMaxIdleConnections()) {
+                        this.idleCount.decrementAndGet();
+                        return client.close();
+                    }
+
+                    // most recently released connections are reused first, so the oldest ones age out at the tail
+                    IdleClient idleClient = new IdleClient(client, System.nanoTime());
+                    this.idleClients.offerFirst(idleClient);
+
+                    // the factory may have been closed while the connection was being released
+                    if (this.closed.get() && this.idleClients.removeFirstOccurrence(idleClient)) {
+                        this.idleCount.decrementAndGet();
+                        return client.close();
+                    }
+
+                    return Mono.empty();
+                }));
+    }
+
+    private void evictIdle() {
+        long deadline = System.nanoTime() - this.configuration.getMaxIdleTime().toNanos();
+
+        for (Iterator<IdleClient> it = this.idleClients.descendingIterator(); it.hasNext(); ) {
+            IdleClient idleClient = it.next();
+
+            if (idleClient.releasedAt - deadline > 0) {
+                break;
+            }
+
+            if (this.idleClients.removeFirstOccurrence(idleClient)) {
+                this.idleCount.decrementAndGet();
+                idleClient.client.close().subscribe(null, e -> this.logger.debug("Failed to close evicted connection", e));
+            }
+        }
+    }
+
+    private static Supplier<IgniteTransport> transports(Ignite ignite) {
+        PartitionResolver partitionResolver = new PartitionResolver(ignite);
+
+        return () -> new ThickTransport(ignite, false, partitionResolver);
+    }
+
+    private static Supplier<IgniteTransport> transports(IgniteClient client) {
+        return () -> new ThinTransport(client, false);
+    }
+
+    private static final class IdleClient {
+
+        private final ClientWrapper client;
+
+        private final long releasedAt;
+
+        private IdleClient(ClientWrapper client, long releasedAt) {
+            this.client = client;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
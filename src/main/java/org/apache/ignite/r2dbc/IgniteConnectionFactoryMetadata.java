@@ -0,0 +1,24 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+
+/**
+ * An implementation of {@link ConnectionFactoryMetadata} for Apache Ignite.
+ */
+public final class IgniteConnectionFactoryMetadata implements ConnectionFactoryMetadata {
+
+    /**
+     * The name of the Apache Ignite product.
+     */
+    public static final String NAME = "Apache Ignite";
+
+    static final IgniteConnectionFactoryMetadata INSTANCE = new IgniteConnectionFactoryMetadata();
+
+    private IgniteConnectionFactoryMetadata() {
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,458 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ConnectionFactoryProvider;
+import io.r2dbc.spi.Option;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteState;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.ClientConfiguration;
+import org.apache.ignite.configuration.ClientConnectorConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.DATABASE;
+import static io.r2dbc.spi.ConnectionFactoryOptions.DRIVER;
+import static io.r2dbc.spi.ConnectionFactoryOptions.HOST;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PORT;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+/**
+ * An implementation of {@link ConnectionFactoryProvider} for creating {@link IgniteConnectionFactory}s from
+ * {@code r2dbc:ignite://host:port/schema?igniteInstanceName=name} URLs. Statements run in the {@code schema} given as
+ * {@link ConnectionFactoryOptions#DATABASE}, {@code PUBLIC} by default.
+ * <p>
+ * With the default {@code thick} {@link #TRANSPORT}, a node named {@link #IGNITE_INSTANCE_NAME} that is already
+ * running in this JVM is shared, otherwise a client node discovering the cluster through {@code host:port} (and
+ * {@link #ADDRESSES}) is started. Factories created for the name of a node the provider started share it, and it is
+ * stopped once the last of them is closed. With the {@code thin} transport a thin client connecting to
+ * {@code host:port} and {@link #ADDRESSES} is opened instead.
+ */
+public final class IgniteConnectionFactoryProvider implements ConnectionFactoryProvider {
+
+    /**
+     * Driver option value.
+     */
+    public static final String IGNITE_DRIVER = "ignite";
+
+    /**
+     * Transport used by connections, either {@code thick} (a client node joining the cluster topology, the default) or
+     * {@code thin} (the thin client protocol). Connections of the {@code thin} transport cannot begin transactions, thin
+     * client transactions do not cover SQL statements.
+     */
+    public static final Option<String> TRANSPORT = Option.valueOf("transport");
+
+    /**
+     * Whether the thin client sends key-based requests directly to the node owning the key.
+     */
+    public static final Option<Boolean> PARTITION_AWARENESS = Option.valueOf("partitionAwareness");
+
+    /**
+     * Name of the Ignite node connections run on.
+     */
+    public static final Option<String> IGNITE_INSTANCE_NAME = Option.valueOf("igniteInstanceName");
+
+    /**
+     * Additional comma separated addresses: discovery addresses for the thick transport, server addresses for the thin
+     * transport.
+     */
+    public static final Option<String> ADDRESSES = Option.valueOf("addresses");
+
+    /**
+     * Cursor page size.
+     */
+    public static final Option<Integer> PAGE_SIZE = Option.valueOf("pageSize");
+
+    /**
+     * Lazy query execution.
+     */
+    public static final Option<Boolean> LAZY = Option.valueOf("lazy");
+
+    /**
+     * Maximum number of idle connections kept for reuse.
+     */
+    public static final Option<Integer> MAX_IDLE_CONNECTIONS = Option.valueOf("maxIdleConnections");
+
+    /**
+     * Time after which idle connections are evicted.
+     */
+    public static final Option<Duration> MAX_IDLE_TIME = Option.valueOf("maxIdleTime");
+
+    /**
+     * Maximum number of parsed SQL texts kept by the statement cache.
+     */
+    public static final Option<Integer> STATEMENT_CACHE_SIZE = Option.valueOf("statementCacheSize");
+
+    /**
+     * Number of rows buffered per node by streaming ingestion.
+     */
+    public static final Option<Integer> STREAMING_PER_NODE_BUFFER_SIZE = Option.valueOf("streamingPerNodeBufferSize");
+
+    /**
+     * Number of buffers in flight per node during streaming ingestion.
+     */
+    public static final Option<Integer> STREAMING_PER_NODE_PARALLEL_OPERATIONS = Option.valueOf("streamingPerNodeParallelOperations");
+
+    /**
+     * Interval at which streaming ingestion flushes partially filled buffers.
+     */
+    public static final Option<Duration> STREAMING_FLUSH_FREQUENCY = Option.valueOf("streamingFlushFrequency");
+
+    /**
+     * Maximum number of transactions open at the same time.
+     */
+    public static final Option<Integer> TRANSACTION_THREAD_CAP = Option.valueOf("transactionThreadCap");
+
+    /**
+     * Concurrency mode of transactions, {@code PESSIMISTIC} or {@code OPTIMISTIC}.
+     */
+    public static final Option<TransactionConcurrency> TRANSACTION_CONCURRENCY = Option.valueOf("transactionConcurrency");
+
+    /**
+     * Time a statement may run on the cluster before it is cancelled.
+     */
+    public static final Option<Duration> STATEMENT_TIMEOUT = Option.valueOf("statementTimeout");
+
+    /**
+     * Number of generated values a node reserves from a sequence at a time.
+     */
+    public static final Option<Integer> GENERATED_KEY_RESERVE_SIZE = Option.valueOf("generatedKeyReserveSize");
+
+    /**
+     * Maximum number of query results kept by the result cache.
+     */
+    public static final Option<Integer> RESULT_CACHE_SIZE = Option.valueOf("resultCacheSize");
+
+    /**
+     * Time the rows of a query stay in the result cache.
+     */
+    public static final Option<Duration> RESULT_CACHE_TTL = Option.valueOf("resultCacheTtl");
+
+    /**
+     * Maximum number of row changes buffered per change stream.
+     */
+    public static final Option<Integer> CHANGE_STREAM_BUFFER_SIZE = Option.valueOf("changeStreamBufferSize");
+
+    /**
+     * Maximum number of rows of a result shared by identical queries running at the same time, {@code 0} disables
+     * coalescing.
+     */
+    public static final Option<Integer> COALESCING_MAX_ROWS = Option.valueOf("coalescingMaxRows");
+
+    /**
+     * Maximum number of single row updates of concurrent statements run as one batched execution, {@code 0} disables
+     * grouping.
+     */
+    public static final Option<Integer> GROUPED_UPDATE_SIZE = Option.valueOf("groupedUpdateSize");
+
+    /**
+     * Time a group of updates waits for more rows after its first row.
+     */
+    public static final Option<Duration> GROUPED_UPDATE_WINDOW = Option.valueOf("groupedUpdateWindow");
+
+    static final String DEFAULT_IGNITE_INSTANCE_NAME = "ignite-r2dbc";
+
+    // nodes started by the provider by instance name, guarded by itself
+    private static final Map<String, StartedNode> STARTED_NODES = new HashMap<>();
+
+    static final String THICK_TRANSPORT = "thick";
+
+    static final String THIN_TRANSPORT = "thin";
+
+    @Override
+    public IgniteConnectionFactory create(ConnectionFactoryOptions connectionFactoryOptions) {
+        Objects.requireNonNull(connectionFactoryOptions, "connectionFactoryOptions must not be null");
+
+        IgniteConnectionConfiguration configuration = toConfiguration(connectionFactoryOptions);
+
+        String transport = getValue(connectionFactoryOptions, TRANSPORT, Function.identity());
+
+        if (THIN_TRANSPORT.equalsIgnoreCase(transport)) {
+            IgniteClient client = Ignition.startClient(toClientConfiguration(connectionFactoryOptions));
+
+            return new IgniteConnectionFactory(client, configuration, client);
+        }
+
+        if (transport != null && !THICK_TRANSPORT.equalsIgnoreCase(transport)) {
+            throw new IllegalArgumentException(String.format("Unknown transport '%s', expected '%s' or '%s'", transport, THICK_TRANSPORT, THIN_TRANSPORT));
+        }
+
+        String instanceName = getValue(connectionFactoryOptions, IGNITE_INSTANCE_NAME, Function.identity());
+
+        if (instanceName == null) {
+            instanceName = DEFAULT_IGNITE_INSTANCE_NAME;
+        }
+
+        // checking for a running node and starting one must not interleave with another factory doing the same
+        synchronized (STARTED_NODES) {
+            StartedNode node = STARTED_NODES.get(instanceName);
+
+            // stopped by someone else meanwhile
+            if (node != null && Ignition.state(instanceName) != IgniteState.STARTED) {
+                STARTED_NODES.remove(instanceName);
+                node = null;
+            }
+
+            if (node == null) {
+                if (Ignition.state(instanceName) == IgniteState.STARTED) {
+                    return new IgniteConnectionFactory(Ignition.ignite(instanceName), configuration, null);
+                }
+
+                node = new StartedNode(instanceName, Ignition.start(toIgniteConfiguration(instanceName, connectionFactoryOptions)));
+                STARTED_NODES.put(instanceName, node);
+            }
+
+            node.references++;
+
+            return new IgniteConnectionFactory(node.ignite, configuration, node);
+        }
+    }
+
+    @Override
+    public String getDriver() {
+        return IGNITE_DRIVER;
+    }
+
+    @Override
+    public boolean supports(ConnectionFactoryOptions connectionFactoryOptions) {
+        Objects.requireNonNull(connectionFactoryOptions, "connectionFactoryOptions must not be null");
+
+        return IGNITE_DRIVER.equals(connectionFactoryOptions.getValue(DRIVER));
+    }
+
+    static IgniteConnectionConfiguration toConfiguration(ConnectionFactoryOptions options) {
+        IgniteConnectionConfiguration.Builder builder = IgniteConnectionConfiguration.builder();
+
+        String schema = options.getValue(DATABASE);
+        if (schema != null && !schema.isEmpty()) {
+            builder.schema(schema);
+        }
+
+        Integer pageSize = getValue(options, PAGE_SIZE, Integer::valueOf);
+        if (pageSize != null) {
+            builder.pageSize(pageSize);
+        }
+
+        Boolean lazy = getValue(options, LAZY, Boolean::valueOf);
+        if (lazy != null) {
+            builder.lazy(lazy);
+        }
+
+        Integer maxIdleConnections = getValue(options, MAX_IDLE_CONNECTIONS, Integer::valueOf);
+        if (maxIdleConnections != null) {
+            builder.maxIdleConnections(maxIdleConnections);
+        }
+
+        Duration maxIdleTime = getValue(options, MAX_IDLE_TIME, Duration::parse);
+        if (maxIdleTime != null) {
+            builder.maxIdleTime(maxIdleTime);
+        }
+
+        Integer statementCacheSize = getValue(options, STATEMENT_CACHE_SIZE, Integer::valueOf);
+        if (statementCacheSize != null) {
+            builder.statementCacheSize(statementCacheSize);
+        }
+
+        Integer streamingPerNodeBufferSize = getValue(options, STREAMING_PER_NODE_BUFFER_SIZE, Integer::valueOf);
+        if (streamingPerNodeBufferSize != null) {
+            builder.streamingPerNodeBufferSize(streamingPerNodeBufferSize);
+        }
+
+        Integer streamingPerNodeParallelOperations = getValue(options, STREAMING_PER_NODE_PARALLEL_OPERATIONS, Integer::valueOf);
+        if (streamingPerNodeParallelOperations != null) {
+            builder.streamingPerNodeParallelOperations(streamingPerNodeParallelOperations);
+        }
+
+        Duration streamingFlushFrequency = getValue(options, STREAMING_FLUSH_FREQUENCY, Duration::parse);
+        if (streamingFlushFrequency != null) {
+            builder.streamingFlushFrequency(streamingFlushFrequency);
+        }
+
+        Integer transactionThreadCap = getValue(options, TRANSACTION_THREAD_CAP, Integer::valueOf);
+        if (transactionThreadCap != null) {
+            builder.transactionThreadCap(transactionThreadCap);
+        }
+
+        TransactionConcurrency transactionConcurrency = getValue(options, TRANSACTION_CONCURRENCY,
+                value -> TransactionConcurrency.valueOf(value.toUpperCase(Locale.ROOT)));
+        if (transactionConcurrency != null) {
+            builder.transactionConcurrency(transactionConcurrency);
+        }
+
+        Duration statementTimeout = getValue(options, STATEMENT_TIMEOUT, Duration::parse);
+        if (statementTimeout != null) {
+            builder.statementTimeout(statementTimeout);
+        }
+
+        Integer generatedKeyReserveSize = getValue(options, GENERATED_KEY_RESERVE_SIZE, Integer::valueOf);
+        if (generatedKeyReserveSize != null) {
+            builder.generatedKeyReserveSize(generatedKeyReserveSize);
+        }
+
+        Integer resultCacheSize = getValue(options, RESULT_CACHE_SIZE, Integer::valueOf);
+        if (resultCacheSize != null) {
+            builder.resultCacheSize(resultCacheSize);
+        }
+
+        Duration resultCacheTtl = getValue(options, RESULT_CACHE_TTL, Duration::parse);
+        if (resultCacheTtl != null) {
+            builder.resultCacheTtl(resultCacheTtl);
+        }
+
+        Integer changeStreamBufferSize = getValue(options, CHANGE_STREAM_BUFFER_SIZE, Integer::valueOf);
+        if (changeStreamBufferSize != null) {
+            builder.changeStreamBufferSize(changeStreamBufferSize);
+        }
+
+        Integer coalescingMaxRows = getValue(options, COALESCING_MAX_ROWS, Integer::valueOf);
+        if (coalescingMaxRows != null) {
+            builder.coalescingMaxRows(coalescingMaxRows);
+        }
+
+        Integer groupedUpdateSize = getValue(options, GROUPED_UPDATE_SIZE, Integer::valueOf);
+        if (groupedUpdateSize != null) {
+            builder.groupedUpdateSize(groupedUpdateSize);
+        }
+
+        Duration groupedUpdateWindow = getValue(options, GROUPED_UPDATE_WINDOW, Duration::parse);
+        if (groupedUpdateWindow != null) {
+            builder.groupedUpdateWindow(groupedUpdateWindow);
+        }
+
+        return builder.build();
+    }
+
+    private static IgniteConfiguration toIgniteConfiguration(String instanceName, ConnectionFactoryOptions options) {
+        IgniteConfiguration configuration = new IgniteConfiguration()
+                .setIgniteInstanceName(instanceName)
+                .setClientMode(true);
+
+        List<String> addresses = getAddresses(options);
+
+        if (!addresses.isEmpty()) {
+            configuration.setDiscoverySpi(new TcpDiscoverySpi().setIpFinder(new TcpDiscoveryVmIpFinder().setAddresses(addresses)));
+        }
+
+        return configuration;
+    }
+
+    static ClientConfiguration toClientConfiguration(ConnectionFactoryOptions options) {
+        List<String> addresses = getAddresses(options);
+
+        if (addresses.isEmpty()) {
+            addresses.add("127.0.0.1:" + ClientConnectorConfiguration.DFLT_PORT);
+        }
+
+        ClientConfiguration configuration = new ClientConfiguration()
+                .setAddresses(addresses.toArray(new String[0]));
+
+        Boolean partitionAwareness = getValue(options, PARTITION_AWARENESS, Boolean::valueOf);
+        if (partitionAwareness != null) {
+            configuration.setPartitionAwarenessEnabled(partitionAwareness);
+        }
+
+        String user = options.getValue(USER);
+        if (user != null) {
+            configuration.setUserName(user);
+        }
+
+        CharSequence password = options.getValue(PASSWORD);
+        if (password != null) {
+            configuration.setUserPassword(password.toString());
+        }
+
+        return configuration;
+    }
+
+    private static List<String> getAddresses(ConnectionFactoryOptions options) {
+        List<String> addresses = new ArrayList<>();
+
+        String host = options.getValue(HOST);
+        if (host != null) {
+            Integer port = getValue(options, PORT, Integer::valueOf);
+            addresses.add(port == null ? host : host + ":" + port);
+        }
+
+        String additional = getValue(options, ADDRESSES, Function.identity());
+        if (additional != null) {
+            for (String address : additional.split(",")) {
+                if (!address.trim().isEmpty()) {
+                    addresses.add(address.trim());
+                }
+            }
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Reads an option that is either typed, when set programmatically, or a {@link String} when parsed from a URL.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <T> T getValue(ConnectionFactoryOptions options, Option<T> option, Function<String, T> parser) {
+        Object value = options.getValue(option);
+
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof String) {
+            return parser.apply((String) value);
+        }
+
+        return (T) value;
+    }
+
+    /**
+     * A node started by the provider and shared by every factory created for its instance name. It is stopped once the
+     * last of these factories is closed.
+     */
+    private static final class StartedNode implements AutoCloseable {
+
+        private final String name;
+
+        private final Ignite ignite;
+
+        // guarded by STARTED_NODES
+        private int references;
+
+        private StartedNode(String name, Ignite ignite) {
+            this.name = name;
+            this.ignite = ignite;
+        }
+
+        @Override
+        public void close() {
+            synchronized (STARTED_NODES) {
+                if (--this.references > 0) {
+                    return;
+                }
+
+                STARTED_NODES.remove(this.name, this);
+                this.ignite.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "StartedNode{" +
+                    "name=" + this.name +
+                    '}';
+        }
+    }
+}
@@ -1,8 +1,148 @@
 package org.apache.ignite.r2dbc;
 
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.R2dbcNonTransientException;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcRollbackException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.client.ClientConnectionException;
+import org.apache.ignite.client.ClientException;
+import org.apache.ignite.cluster.ClusterTopologyException;
+import org.apache.ignite.internal.client.thin.ClientServerError;
+import org.apache.ignite.internal.processors.cache.query.IgniteQueryErrorCode;
+import org.apache.ignite.internal.processors.platform.client.ClientStatus;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.transactions.TransactionDeadlockException;
+import org.apache.ignite.transactions.TransactionOptimisticException;
+import org.apache.ignite.transactions.TransactionRollbackException;
+import org.apache.ignite.transactions.TransactionSerializationException;
+import org.apache.ignite.transactions.TransactionTimeoutException;
+
+import javax.cache.CacheException;
+import java.sql.SQLException;
+
 public class IgniteExceptionFactory {
 
+    // the SQL state Ignite reports when the actual failure is nested in the cause chain
+    private static final String UNKNOWN_SQL_STATE = "50000";
+
+    private static final String SERIALIZATION_FAILURE_SQL_STATE = "40001";
+
+    // Ignite 2.10 drops the CONCURRENT_UPDATE code of DML conflicts, see IgniteExceptionFactoryTest
+    private static final String CONCURRENT_UPDATE_MESSAGE = "because they had been modified concurrently";
+
+    private static final String QUERY_CANCELLED_SQL_STATE = "57014";
+
+    /**
+     * Checks whether {@code throwable} is an Ignite failure that should be surfaced as a {@link R2dbcException}.
+     *
+     * @param throwable the failure
+     * @return {@code true} if {@link #convert(Throwable)} should be applied
+     */
+    static boolean isConvertible(final Throwable throwable) {
+        return throwable instanceof IgniteException || throwable instanceof IgniteCheckedException || throwable instanceof CacheException
+                || throwable instanceof ClientException;
+    }
+
     public static RuntimeException convert(final Throwable object) {
-        return null;
+        if (object instanceof R2dbcException) {
+            return (R2dbcException) object;
+        }
+
+        for (Throwable cause = object; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransactionOptimisticException || cause instanceof TransactionRollbackException) {
+                return new R2dbcRollbackException(cause.getMessage(), object);
+            }
+            // MVCC transactions that wrote rows changed since their snapshot
+            if (cause instanceof TransactionSerializationException) {
+                return new R2dbcRollbackException(cause.getMessage(), SERIALIZATION_FAILURE_SQL_STATE, 0, object);
+            }
+            if (cause instanceof TransactionDeadlockException || cause instanceof ClusterTopologyException
+                    || cause instanceof ClientConnectionException) {
+                return new R2dbcTransientResourceException(cause.getMessage(), object);
+            }
+            if (cause instanceof TransactionTimeoutException || cause instanceof QueryCancelledException) {
+                return new R2dbcTimeoutException(cause.getMessage(), object);
+            }
+            if (cause instanceof ClientServerError && isCancelled((ClientServerError) cause)) {
+                return new R2dbcTimeoutException(cause.getMessage(), QUERY_CANCELLED_SQL_STATE, ((ClientServerError) cause).getCode(), object);
+            }
+            if (cause instanceof IgniteSQLException && isConflict((IgniteSQLException) cause)) {
+                IgniteSQLException exception = (IgniteSQLException) cause;
+                return new R2dbcRollbackException(exception.getMessage(), SERIALIZATION_FAILURE_SQL_STATE, exception.statusCode(), object);
+            }
+            if (cause instanceof IgniteSQLException && isSpecific(((IgniteSQLException) cause).sqlState())) {
+                IgniteSQLException exception = (IgniteSQLException) cause;
+                return convert(exception.getMessage(), exception.sqlState(), exception.statusCode(), object);
+            }
+            // batched updates report the failing row through a nested BatchUpdateException
+            if (cause instanceof SQLException && isSpecific(((SQLException) cause).getSQLState())) {
+                SQLException exception = (SQLException) cause;
+                return convert(exception.getMessage(), exception.getSQLState(), exception.getErrorCode(), object);
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+
+        return new IgniteR2dbcNonTransientException(object.getMessage(), object);
+    }
+
+    private static boolean isConflict(IgniteSQLException exception) {
+        int code = exception.statusCode();
+
+        if (code == IgniteQueryErrorCode.CONCURRENT_UPDATE || code == IgniteQueryErrorCode.TRANSACTION_SERIALIZATION_ERROR) {
+            return true;
+        }
+
+        // DML reports keys changed by another transaction with neither a code nor a specific SQL state, only the message tells
+        return code == IgniteQueryErrorCode.UNKNOWN && !isSpecific(exception.sqlState()) && exception.getMessage() != null
+                && exception.getMessage().contains(CONCURRENT_UPDATE_MESSAGE);
+    }
+
+    private static boolean isCancelled(ClientServerError error) {
+        // the thin protocol reports a cancelled query with the generic status and the message of the server failure
+        return error.getCode() == ClientStatus.FAILED && error.getMessage() != null && error.getMessage().contains(QueryCancelledException.ERR_MSG);
+    }
+
+    private static boolean isSpecific(String sqlState) {
+        return sqlState != null && !sqlState.equals(UNKNOWN_SQL_STATE);
+    }
+
+    private static R2dbcException convert(String message, String sqlState, int code, Throwable object) {
+        if (sqlState.startsWith("42")) {
+            return new R2dbcBadGrammarException(message, sqlState, code, object);
+        }
+        if (sqlState.startsWith("22") || sqlState.startsWith("23")) {
+            return new R2dbcDataIntegrityViolationException(message, sqlState, code, object);
+        }
+        if (sqlState.startsWith("40")) {
+            return new R2dbcRollbackException(message, sqlState, code, object);
+        }
+        if (sqlState.equals(QUERY_CANCELLED_SQL_STATE)) {
+            return new R2dbcTimeoutException(message, sqlState, code, object);
+        }
+        if (sqlState.startsWith("08")) {
+            return new R2dbcNonTransientResourceException(message, sqlState, code, object);
+        }
+
+        return new IgniteR2dbcNonTransientException(message, sqlState, code, object);
+    }
+
+    static final class IgniteR2dbcNonTransientException extends R2dbcNonTransientException {
+
+        IgniteR2dbcNonTransientException(String reason, Throwable cause) {
+            super(reason, cause);
+        }
+
+        IgniteR2dbcNonTransientException(String reason, String sqlState, int errorCode, Throwable cause) {
+            super(reason, sqlState, errorCode, cause);
+        }
     }
 }
@@ -3,16 +3,18 @@ package org.apache.ignite.r2dbc;
 import io.r2dbc.spi.Result;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
-import org.apache.ignite.IgniteException;
-import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
 import org.jetbrains.annotations.Nullable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class IgniteResult implements Result {
 
@@ -20,20 +22,39 @@ public class IgniteResult implements Result {
 
     private final Flux<IgniteRow> rows;
 
+    private final Flux<ColumnBatch> batches;
+
     private final Mono<Integer> rowsUpdated;
 
     private IgniteResult(Mono<Integer> rowsUpdated) {
         this.rowMetadata = null;
         this.rows = Flux.empty();
+        this.batches = Flux.empty();
         this.rowsUpdated = Objects.requireNonNull(rowsUpdated, "rowsUpdated must not be null");
     }
 
-    IgniteResult(IgniteRowMetadata rowMetadata, Flux<IgniteRow> rows, Mono<Integer> rowsUpdated) {
+    /**
+     * @param batchSize the maximum number of rows per {@link ColumnBatch}, the page size of the query
+     */
+    IgniteResult(IgniteRowMetadata rowMetadata, Flux<IgniteRow> rows, int batchSize, Mono<Integer> rowsUpdated) {
+        this(rowMetadata, rows, rows.buffer(batchSize).map(page -> toBatch(page, rowMetadata)), rowsUpdated);
+    }
+
+    private IgniteResult(IgniteRowMetadata rowMetadata, Flux<IgniteRow> rows, Flux<ColumnBatch> batches, Mono<Integer> rowsUpdated) {
         this.rowMetadata = Objects.requireNonNull(rowMetadata, "rowMetadata must not be null");
         this.rows = Objects.requireNonNull(rows, "rows must not be null");
+        this.batches = Objects.requireNonNull(batches, "batches must not be null");
         this.rowsUpdated = Objects.requireNonNull(rowsUpdated, "rowsUpdated must not be null");
     }
 
+    /**
+     * @return the metadata of the rows, {@code null} for an update count
+     */
+    @Nullable
+    IgniteRowMetadata getRowMetadata() {
+        return this.rowMetadata;
+    }
+
     @Override
     public Mono<Integer> getRowsUpdated() {
         return this.rowsUpdated;
@@ -47,6 +68,17 @@ public class IgniteResult implements Result {
                 .map(row -> f.apply(row, this.rowMetadata));
     }
 
+    /**
+     * Emits the rows in batches held column by column, instead of one {@link Row} per row as {@link #map} does. Rows are
+     * read straight from the cursor into primitive arrays where the column type allows, so no object is created per
+     * row for them. A batch holds up to a cursor page of rows. Like {@link #map}, a result can only be consumed once.
+     *
+     * @return a {@link Flux} of the batches, empty for an update count
+     */
+    public Flux<ColumnBatch> batches() {
+        return this.batches;
+    }
+
     @Override
     public String toString() {
         return "IgniteResult{" +
@@ -60,37 +92,98 @@ public class IgniteResult implements Result {
         return new IgniteResult(Mono.justOrEmpty(rowsUpdated));
     }
 
-    static IgniteResult toResult(QueryCursorImpl<List<?>> result) {
+    /**
+     * @param batchSize the maximum number of rows per {@link ColumnBatch}, the page size of the cursor
+     */
+    static IgniteResult toResult(FieldsQueryCursor<List<?>> result, IgniteRowMetadata rowMetadata, int batchSize, Scheduler scheduler,
+                                 QueryMetrics queryMetrics) {
         Objects.requireNonNull(result, "result must not be null");
+        Objects.requireNonNull(rowMetadata, "rowMetadata must not be null");
+        Objects.requireNonNull(scheduler, "scheduler must not be null");
+        Objects.requireNonNull(queryMetrics, "queryMetrics must not be null");
 
-        Iterator<List<?>> iterator = result.iterator();
+        Flux<IgniteRow> rows = read(result, result::iterator, iterator -> Flux.fromIterable(() -> iterator)
+                .map(values -> IgniteRow.toRow(asRow(values), rowMetadata)), scheduler, queryMetrics);
+        Flux<ColumnBatch> batches = read(result, result::iterator, iterator -> toBatches(iterator, rowMetadata, batchSize), scheduler, queryMetrics);
 
-        IgniteRowMetadata rowMetadata = IgniteRowMetadata.toRowMetadata(result);
+        return new IgniteResult(rowMetadata, rows, batches, Mono.empty());
+    }
 
-        Iterable<List<Object>> iterable = () -> new Iterator<List<Object>>() {
+    /**
+     * Continues a cursor whose first rows were read already.
+     *
+     * @param head     the rows read from {@code result} already
+     * @param iterator  the iterator of {@code result}, positioned after {@code head}
+     * @param batchSize the maximum number of rows per {@link ColumnBatch}, the page size of the cursor
+     */
+    static IgniteResult toResult(FieldsQueryCursor<List<?>> result, List<IgniteRow> head, Iterator<List<?>> iterator, IgniteRowMetadata rowMetadata,
+                                 int batchSize, Scheduler scheduler, QueryMetrics queryMetrics) {
+        Objects.requireNonNull(result, "result must not be null");
+        Objects.requireNonNull(head, "head must not be null");
+        Objects.requireNonNull(iterator, "iterator must not be null");
+        Objects.requireNonNull(rowMetadata, "rowMetadata must not be null");
 
-            @Override
-            public boolean hasNext() {
-                boolean b = iterator.hasNext();
+        Flux<IgniteRow> rows = read(result, () -> iterator, rest -> Flux.fromIterable(head)
+                .concatWith(Flux.fromIterable(() -> rest).map(values -> IgniteRow.toRow(asRow(values), rowMetadata))), scheduler, queryMetrics);
 
-                if (!b) {
-                    result.close();
-                }
+        return new IgniteResult(rowMetadata, rows, batchSize, Mono.empty());
+    }
 
-                return b;
+    private static <T> Flux<T> read(FieldsQueryCursor<List<?>> result, Supplier<Iterator<List<?>>> iterator, Function<Iterator<List<?>>, Flux<T>> reader,
+                                    Scheduler scheduler, QueryMetrics queryMetrics) {
+        // rows are pulled from the cursor as they are requested, so pages are only fetched on demand, and the cursor
+        // is closed on completion, error or cancellation. The cursor hands out its iterator only once.
+        return Flux.defer(() -> {
+            QueryCancellation cancellation = new QueryCancellation();
+
+            cancellation.attach(result);
+
+            return Flux.using(() -> result, cursor -> reader.apply(iterator.get()), FieldsQueryCursor::close)
+                    // a cursor read to its end is not stopped by a late cancellation
+                    .doOnTerminate(cancellation::complete)
+                    // page fetches block, keep them on the connection scheduler
+                    .subscribeOn(scheduler)
+                    // Ignite runs the query while the iterator is opened, which blocks the subscription on the scheduler,
+                    // so the cursor is closed right away from the cancelling thread to stop the query on the cluster
+                    .doOnCancel(() -> {
+                        if (cancellation.cancel()) {
+                            queryMetrics.onCancelled();
+                        }
+                    });
+        }).onErrorMap(IgniteExceptionFactory::isConvertible, IgniteExceptionFactory::convert);
+    }
+
+    private static Flux<ColumnBatch> toBatches(Iterator<List<?>> iterator, IgniteRowMetadata rowMetadata, int batchSize) {
+        return Flux.generate(sink -> {
+            ColumnBatch batch = new ColumnBatch(rowMetadata, batchSize);
+
+            while (!batch.isFull() && iterator.hasNext()) {
+                batch.add(iterator.next());
             }
 
-            @Override
-            public List<Object> next() {
-                //noinspection unchecked
-                return (List<Object>) iterator.next();
+            if (batch.size() > 0) {
+                sink.next(batch);
             }
-        };
 
-        Flux<IgniteRow> rows = Flux.fromIterable(iterable)
-                .map(values -> IgniteRow.toRow(values, rowMetadata))
-                .onErrorMap(IgniteException.class, IgniteExceptionFactory::convert);
+            // a full batch leaves the next page unfetched until the next batch is requested
+            if (!batch.isFull()) {
+                sink.complete();
+            }
+        });
+    }
+
+    private static ColumnBatch toBatch(List<IgniteRow> rows, IgniteRowMetadata rowMetadata) {
+        ColumnBatch batch = new ColumnBatch(rowMetadata, rows.size());
+
+        for (IgniteRow row : rows) {
+            batch.add(row.getValues());
+        }
+
+        return batch;
+    }
 
-        return new IgniteResult(rowMetadata, rows, Mono.empty());
+    @SuppressWarnings("unchecked")
+    private static List<Object> asRow(List<?> values) {
+        return (List<Object>) values;
     }
 }
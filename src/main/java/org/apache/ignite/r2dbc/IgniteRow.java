@@ -3,6 +3,7 @@ package org.apache.ignite.r2dbc;
 import io.r2dbc.spi.Row;
 
 import java.util.List;
+import java.util.Objects;
 
 public class IgniteRow implements Row {
 
@@ -19,16 +20,36 @@ public class IgniteRow implements Row {
         return new IgniteRow(rowMetadata, values);
     }
 
+    List<Object> getValues() {
+        return this.cols;
+    }
+
 
+    /**
+     * Returns the value of a column converted to {@code type}. Integral and floating point values are widened, and
+     * {@code java.sql} temporal values are converted to their {@code java.time} counterparts and back.
+     *
+     * @param index the column index
+     * @param type  the requested type, {@link Object} for the value as returned by Ignite
+     * @param <T>   the requested type
+     * @return the value, {@code null} if the column is {@code NULL}
+     * @throws IllegalArgumentException if the value cannot be converted to {@code type}
+     */
     @Override
     public <T> T get(final int index, final Class<T> type) {
-        //noinspection unchecked
-        return (T) cols.get(index);
+        Objects.requireNonNull(type, "type must not be null");
+
+        Object value = this.cols.get(this.rowMetadata.getColumn(index).getIndex());
+
+        if (value == null) {
+            return null;
+        }
+
+        return this.rowMetadata.getCodec(index, value.getClass(), type).decode(value);
     }
 
     @Override
     public <T> T get(final String name, final Class<T> type) {
-        //noinspection unchecked
-        return (T) cols.get(rowMetadata.getColumn(name).getIndex());
+        return get(this.rowMetadata.getColumn(name).getIndex(), type);
     }
 }
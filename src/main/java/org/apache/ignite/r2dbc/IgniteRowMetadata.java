@@ -2,14 +2,18 @@ package org.apache.ignite.r2dbc;
 
 import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.RowMetadata;
-import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
 
 import java.util.*;
 
 public class IgniteRowMetadata extends ColumnSource implements RowMetadata, Collection<String> {
 
+    // the codec last used per column, replaced when another type is requested or the column holds values of another type
+    private final ColumnCodec[] codecs;
+
     IgniteRowMetadata(List<IgniteColumnMetadata> columnMetadatas) {
         super(Objects.requireNonNull(columnMetadatas, "columnMetadatas must not be null"));
+        this.codecs = new ColumnCodec[columnMetadatas.size()];
     }
 
     @Override
@@ -27,13 +31,56 @@ public class IgniteRowMetadata extends ColumnSource implements RowMetadata, Coll
         return Collections.unmodifiableList(super.getColumnMetadatas());
     }
 
-    static IgniteRowMetadata toRowMetadata(QueryCursorImpl<List<?>> result) {
+    /**
+     * Returns the conversion of the values of a column to {@code type}.
+     *
+     * @param index     the column index
+     * @param valueType the class of the value to convert
+     * @param type      the requested type
+     * @param <T>       the requested type
+     * @return the conversion
+     * @throws IllegalArgumentException if the value cannot be converted to {@code type}
+     */
+    @SuppressWarnings("unchecked")
+    <T> Codecs.Codec<T> getCodec(int index, Class<?> valueType, Class<T> type) {
+        // entries are immutable, so racing rows at worst resolve the same codec twice
+        ColumnCodec codec = this.codecs[index];
+
+        if (codec == null || codec.type != type || codec.valueType != valueType) {
+            codec = new ColumnCodec(valueType, type, Codecs.find(valueType, type));
+            this.codecs[index] = codec;
+        }
+
+        return (Codecs.Codec<T>) codec.codec;
+    }
+
+    /**
+     * Checks whether {@code result} returns the same fields as described by this metadata.
+     *
+     * @param result the cursor
+     * @return {@code true} if this metadata describes the rows of {@code result}
+     */
+    boolean matches(FieldsQueryCursor<List<?>> result) {
+        if (result.getColumnsCount() != getColumnCount()) {
+            return false;
+        }
+
+        for (int i = 0; i < getColumnCount(); i++) {
+            if (!getColumn(i).matches(result, i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static IgniteRowMetadata toRowMetadata(FieldsQueryCursor<List<?>> result) {
         Objects.requireNonNull(result, "result must not be null");
 
         return new IgniteRowMetadata(getColumnMetadatas(result));
     }
 
-    private static List<IgniteColumnMetadata> getColumnMetadatas(QueryCursorImpl<List<?>> result) {
+    private static List<IgniteColumnMetadata> getColumnMetadatas(FieldsQueryCursor<List<?>> result) {
         List<IgniteColumnMetadata> columnMetadatas = new ArrayList<>(result.getColumnsCount());
 
         for (int i = 0; i < result.getColumnsCount(); i++) {
@@ -147,4 +194,19 @@ public class IgniteRowMetadata extends ColumnSource implements RowMetadata, Coll
         throw new UnsupportedOperationException();
     }
 
+    private static final class ColumnCodec {
+
+        private final Class<?> valueType;
+
+        private final Class<?> type;
+
+        private final Codecs.Codec<?> codec;
+
+        private ColumnCodec(Class<?> valueType, Class<?> type, Codecs.Codec<?> codec) {
+            this.valueType = valueType;
+            this.type = type;
+            this.codec = codec;
+        }
+    }
+
 }
@@ -1,39 +1,63 @@
 package org.apache.ignite.r2dbc;
 
 import io.r2dbc.spi.Statement;
-import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
 import org.jetbrains.annotations.Nullable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 public class IgniteStatement implements Statement {
 
-    // search for $ or ? in the statement.
-    private static final Pattern PARAMETER_SYMBOLS = Pattern.compile(".*([$?])([\\d]+).*");
-
-    // the value of the binding will be on the second group
-    private static final int BIND_POSITION_NUMBER_GROUP = 2;
-
-    private final Bindings bindings = new Bindings();
+    private final Bindings bindings;
 
     private final ClientWrapper client;
 
-    private final String sql;
+    private final ParsedStatement statement;
 
+    @Nullable
     private String[] generatedColumns;
 
-    private boolean allGeneratedColumns = false;
+    private int fetchSize;
+
+    private final QueryHints defaultHints;
+
+    private final QueryHints.Builder hints = QueryHints.builder();
+
+    private Duration timeout;
+
+    private boolean cached;
+
+    private int parallelism = 1;
+
+    private boolean ordered;
 
     IgniteStatement(ClientWrapper client, String sql) {
+        this(client, sql, QueryHints.NONE, client.getConfiguration().getStatementTimeout());
+    }
+
+    /**
+     * @param defaultHints the hints of the connection, used for every hint this statement does not set
+     * @param timeout      the statement timeout, {@link Duration#ZERO} for none
+     */
+    IgniteStatement(ClientWrapper client, String sql, QueryHints defaultHints, Duration timeout) {
         this.client = Objects.requireNonNull(client, "client must not be null");
-        this.sql = Objects.requireNonNull(sql, "sql must not be null");
+        this.statement = client.getStatementCache().get(Objects.requireNonNull(sql, "sql must not be null"));
+        this.bindings = new Bindings(this.statement.getParameterCount());
+        this.defaultHints = Objects.requireNonNull(defaultHints, "defaultHints must not be null");
+        this.timeout = Objects.requireNonNull(timeout, "timeout must not be null");
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if a parameter of the current binding is not bound
+     */
     @Override
     public IgniteStatement add() {
         this.bindings.finish();
@@ -44,7 +68,7 @@ public class IgniteStatement implements Statement {
     public IgniteStatement bind(String name, Object value) {
         Objects.requireNonNull(name, "name must not be null");
 
-        return addIndex(getIndex(name), value);
+        return addIndex(this.statement.getIndex(name), value);
     }
 
     @Override
@@ -56,7 +80,7 @@ public class IgniteStatement implements Statement {
     public IgniteStatement bindNull(String name, Class<?> type) {
         Objects.requireNonNull(name, "name must not be null");
 
-        bindNull(getIndex(name), type);
+        bindNull(this.statement.getIndex(name), type);
 
         return this;
     }
@@ -68,26 +92,208 @@ public class IgniteStatement implements Statement {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if a parameter is not bound, or generated values are requested for an
+     *                               {@code INSERT} statement without a column list and a {@code VALUES} list
+     */
     @Override
     public Flux<IgniteResult> execute() {
-        return Flux.fromArray(this.sql.split(";"))
-                .flatMap(sql -> {
-                    if (this.generatedColumns == null) {
-                        return execute(this.client, sql.trim(), this.bindings, this.allGeneratedColumns);
-                    }
-                    return execute(this.client, sql.trim(), this.bindings, this.generatedColumns);
-                });
+        this.bindings.validate();
+
+        QueryHints hints = this.hints.build().withDefaults(this.defaultHints);
+
+        // a script without parameters goes out in as few calls as possible
+        if (this.statement.getFragments().size() > 1 && this.statement.getParameterCount() == 0 && this.generatedColumns == null) {
+            return this.client.executeScript(this.statement.getFragments(), this.fetchSize, hints, this.timeout);
+        }
+
+        List<Flux<IgniteResult>> results = new ArrayList<>(this.statement.getFragments().size());
+
+        int parallelism = this.parallelism;
+        boolean ordered = this.ordered;
+
+        for (ParsedStatement.Fragment fragment : this.statement.getFragments()) {
+            GeneratedKeys keys = null;
+
+            if (this.generatedColumns != null) {
+                try {
+                    keys = GeneratedKeys.of(fragment, this.generatedColumns, this.statement.getParameterCount());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+
+            Function<SqlFieldsQuery, Mono<IgniteResult>> executor = this.client::execute;
+
+            if (fragment.isQuery() && this.cached) {
+                executor = this.client::executeCached;
+            } else if (fragment.isQuery() && parallelism > 1) {
+                executor = query -> this.client.executeSplit(query, parallelism, ordered);
+            } else if (fragment.isQuery()) {
+                executor = this.client::executeCoalesced;
+            } else if (fragment.isDml() && this.bindings.bindings.size() <= 1) {
+                executor = this.client::executeGrouped;
+            }
+
+            results.add(keys != null ? this.client.executeGenerated(keys, this.bindings.bindings, this.fetchSize, hints, this.timeout)
+                    : execute(this.client, fragment, this.bindings, this.fetchSize, hints, this.timeout, executor));
+        }
+
+        return Flux.concat(results);
+    }
+
+    /**
+     * Configures the number of rows fetched from the cluster per cursor page. Rows are fetched page by page as they are
+     * requested from {@link IgniteResult#map}, so this bounds the number of rows held per open result.
+     *
+     * @param rows the page size, or {@code 0} to use the connection default
+     * @return this {@link IgniteStatement}
+     * @throws IllegalArgumentException if {@code rows} is negative
+     */
+    @Override
+    public IgniteStatement fetchSize(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must be greater or equal to zero");
+        }
+
+        this.fetchSize = rows;
+        return this;
+    }
+
+    /**
+     * Configures lazy execution for this statement, overriding the connection default.
+     *
+     * @param lazy whether the statement runs lazily
+     * @return this {@link IgniteStatement}
+     * @see QueryHints.Builder#lazy(boolean)
+     */
+    public IgniteStatement lazy(boolean lazy) {
+        this.hints.lazy(lazy);
+        return this;
+    }
+
+    /**
+     * Declares that the rows of each {@code GROUP BY} group live on a single node, overriding the connection default.
+     *
+     * @param collocated whether the data is collocated by the grouping columns
+     * @return this {@link IgniteStatement}
+     * @see QueryHints.Builder#collocated(boolean)
+     */
+    public IgniteStatement collocated(boolean collocated) {
+        this.hints.collocated(collocated);
+        return this;
     }
 
+    /**
+     * Declares that this statement only reads replicated caches, overriding the connection default.
+     *
+     * @param replicatedOnly whether only replicated caches are read
+     * @return this {@link IgniteStatement}
+     * @see QueryHints.Builder#replicatedOnly(boolean)
+     */
+    public IgniteStatement replicatedOnly(boolean replicatedOnly) {
+        this.hints.replicatedOnly(replicatedOnly);
+        return this;
+    }
+
+    /**
+     * Allows joins of data that is not collocated, overriding the connection default.
+     *
+     * @param distributedJoins whether joins may fetch rows from other nodes
+     * @return this {@link IgniteStatement}
+     * @see QueryHints.Builder#distributedJoins(boolean)
+     */
+    public IgniteStatement distributedJoins(boolean distributedJoins) {
+        this.hints.distributedJoins(distributedJoins);
+        return this;
+    }
+
+    /**
+     * Makes the planner join tables in the order they appear in the statement, overriding the connection default.
+     *
+     * @param enforceJoinOrder whether the join order is kept
+     * @return this {@link IgniteStatement}
+     * @see QueryHints.Builder#enforceJoinOrder(boolean)
+     */
+    public IgniteStatement enforceJoinOrder(boolean enforceJoinOrder) {
+        this.hints.enforceJoinOrder(enforceJoinOrder);
+        return this;
+    }
+
+    /**
+     * Configures how long this statement may run on the cluster before it is cancelled and fails with
+     * {@link io.r2dbc.spi.R2dbcTimeoutException}, overriding the connection default.
+     *
+     * @param timeout the statement timeout, {@link Duration#ZERO} for none
+     * @return this {@link IgniteStatement}
+     * @throws NullPointerException     if {@code timeout} is {@code null}
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public IgniteStatement timeout(Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout must not be null");
+
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Serves the rows of this query from the result cache of the connection factory, see
+     * {@link IgniteConnectionConfiguration.Builder#resultCacheSize(int)}. Cached rows are read eagerly. Changes made by
+     * other clients reach the cache through continuous queries, so cached rows may briefly lag behind them. Queries in
+     * a transaction, on a thin client connection or on tables that cannot be watched always run on the cluster.
+     *
+     * @param cached whether the rows may be cached
+     * @return this {@link IgniteStatement}
+     */
+    public IgniteStatement cached(boolean cached) {
+        this.cached = cached;
+        return this;
+    }
+
+    /**
+     * Splits this query into one query per range of partitions of the tables it reads, runs them at most
+     * {@code parallelism} at a time, each on a thread of the execution scheduler, and merges their rows into one
+     * result. Meant for exporting large partitioned tables, as every range is reduced on its own: aggregates,
+     * {@code DISTINCT}, {@code ORDER BY} and {@code LIMIT} apply within each range. Queries in a transaction, on a thin
+     * client connection or on tables that are not partitioned alike run as a whole.
+     *
+     * @param parallelism the number of ranges, {@code 1} runs the query as a whole
+     * @param ordered     whether the rows of each range follow those of the ranges before it, rather than being
+     *                    emitted as they arrive
+     * @return this {@link IgniteStatement}
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public IgniteStatement parallel(int parallelism, boolean ordered) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than zero");
+        }
+
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Generates the values of {@code columns} for {@code INSERT} statements that list their columns and insert a
+     * {@code VALUES} list. Ignite has no identity columns, so each column is set to the next value of a cluster wide
+     * sequence named {@code SQL_<schema>_<table>_<column>_SEQ}, starting at {@code 1}. The values come back as the rows
+     * of the result, as {@link Long}s. Values are reserved by each node in blocks, see
+     * {@link IgniteConnectionConfiguration.Builder#generatedKeyReserveSize(int)}. Other statements are not affected.
+     *
+     * @param columns the generated columns, no values are generated if none are given
+     * @return this {@link IgniteStatement}
+     */
     @Override
     public IgniteStatement returnGeneratedValues(String... columns) {
         Objects.requireNonNull(columns, "columns must not be null");
 
-        if (columns.length == 0) {
-            this.allGeneratedColumns = true;
-        } else {
-            this.generatedColumns = columns;
-        }
+        this.generatedColumns = columns.length > 0 ? columns : null;
 
         return this;
     }
@@ -104,39 +310,29 @@ public class IgniteStatement implements Statement {
         return this;
     }
 
-    private static Flux<IgniteResult> execute(ClientWrapper client, String sql, Bindings bindings, Object generatedColumns) {
-        return Flux.fromIterable(() -> client.prepareCommand(sql, bindings.bindings))
-                .map(client::execute)
-                .map(command -> {
-                    QueryCursorImpl<List<?>> cursor = (QueryCursorImpl<List<?>>) command;
-                    if (cursor.isQuery()) {
-                        return IgniteResult.toResult(cursor);
-                    } else {
-                        List<List<?>> items = cursor.getAll();
-
-                        Long updCnt = (Long) items.get(0).get(0);
-
-                        return IgniteResult.toResult(updCnt.intValue());
-                    }
-                });
-    }
-
-    private int getIndex(String identifier) {
-        Matcher matcher = PARAMETER_SYMBOLS.matcher(identifier);
-
-        if (!matcher.find()) {
-            throw new IllegalArgumentException(String.format("Identifier '%s' is not a valid identifier. Should be of the pattern '%s'.", identifier, PARAMETER_SYMBOLS.pattern()));
+    private static Flux<IgniteResult> execute(ClientWrapper client, ParsedStatement.Fragment fragment, Bindings bindings, int fetchSize, QueryHints hints,
+                                              Duration timeout, Function<SqlFieldsQuery, Mono<IgniteResult>> executor) {
+        // several bindings of a DML statement go out as one batched execution
+        if (bindings.bindings.size() > 1 && fragment.isDml()) {
+            return client.executeBatch(fragment.getTemplate(), bindings.bindings, fetchSize, hints, timeout);
         }
 
-        return Integer.parseInt(matcher.group(BIND_POSITION_NUMBER_GROUP)) - 1;
+        return Flux.fromIterable(() -> client.prepareCommand(fragment, bindings.bindings, fetchSize, hints, timeout))
+                .concatMap(executor);
     }
 
     private static final class Bindings {
 
         private final List<Binding> bindings = new ArrayList<>();
 
+        private final int parameterCount;
+
         private Binding current;
 
+        private Bindings(int parameterCount) {
+            this.parameterCount = parameterCount;
+        }
+
         @Override
         public String toString() {
             return "Bindings{" +
@@ -146,12 +342,23 @@ public class IgniteStatement implements Statement {
         }
 
         private void finish() {
+            getCurrent().validate();
             this.current = null;
         }
 
+        private void validate() {
+            if (this.bindings.isEmpty() && this.parameterCount > 0) {
+                throw new IllegalStateException("Parameter 1 is not bound");
+            }
+
+            for (Binding binding : this.bindings) {
+                binding.validate();
+            }
+        }
+
         private Binding getCurrent() {
             if (this.current == null) {
-                this.current = new Binding();
+                this.current = new Binding(this.parameterCount);
                 this.bindings.add(this.current);
             }
 
@@ -0,0 +1,183 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * The way a {@link ClientWrapper} talks to the cluster: a thick {@link org.apache.ignite.Ignite} node or a thin
+ * {@link org.apache.ignite.client.IgniteClient}.
+ * <p>
+ * All methods block and are only called on the connection scheduler, so transactions that Ignite binds to the calling
+ * thread stay bound to the connection.
+ */
+interface IgniteTransport {
+
+    /**
+     * Opens a cursor for the {@code query}.
+     *
+     * @param query the query
+     * @return the cursor
+     */
+    FieldsQueryCursor<List<?>> query(SqlFieldsQuery query);
+
+    /**
+     * Opens a cursor for the {@code query}, registering with {@code cancellation} how to stop the query while it runs.
+     *
+     * @param query        the query
+     * @param cancellation the cancellation of the query
+     * @return the cursor
+     */
+    FieldsQueryCursor<List<?>> query(SqlFieldsQuery query, QueryCancellation cancellation);
+
+    /**
+     * Runs a DML statement once per element of {@code batchArgs}.
+     *
+     * @param query     the DML query, its arguments are ignored
+     * @param batchArgs the arguments of each execution
+     * @return the update count of each execution, in order
+     */
+    long[] updateBatch(SqlFieldsQuery query, List<Object[]> batchArgs);
+
+    /**
+     * Checks whether {@link #updateBatch(SqlFieldsQuery, List)} sends all executions with a single call and reports the
+     * executions that failed through a {@link java.sql.BatchUpdateException} in the cause chain.
+     *
+     * @return {@code true} if updates are batched
+     */
+    boolean isUpdateBatched();
+
+    /**
+     * Opens a cursor for each of the {@code queries}, running them in order.
+     *
+     * @param queries the queries
+     * @return the cursors, in order
+     */
+    List<FieldsQueryCursor<List<?>>> queryAll(List<SqlFieldsQuery> queries);
+
+    /**
+     * Opens a session that loads the rows of {@code INSERT} statements through data streamers.
+     *
+     * @param schema                    the schema the statements run in
+     * @param perNodeBufferSize         the number of rows buffered per node
+     * @param perNodeParallelOperations the number of buffers in flight per node, {@code 0} for the Ignite default
+     * @param flushFrequency            the flush frequency in milliseconds, {@code 0} to flush on close only
+     * @return the session
+     */
+    Ingest openIngest(String schema, int perNodeBufferSize, int perNodeParallelOperations, long flushFrequency);
+
+    /**
+     * Checks whether {@code cursor} returns rows or a single update count.
+     *
+     * @param cursor the cursor opened for {@code query}
+     * @param query  the query
+     * @return {@code true} if the cursor returns rows
+     */
+    boolean isQuery(FieldsQueryCursor<List<?>> cursor, SqlFieldsQuery query);
+
+    /**
+     * Resolves the single partition a statement touches when {@code value} is bound to its key predicate.
+     *
+     * @param schema    the schema the statement runs in
+     * @param predicate the key predicate of the statement
+     * @param value     the value bound to the predicate
+     * @return the partition, {@code -1} if it cannot be resolved
+     */
+    int partition(String schema, KeyPredicate predicate, Object value);
+
+    /**
+     * Returns the number of partitions of a partitioned table.
+     *
+     * @param schema the schema of the table
+     * @param table  the table
+     * @return the partition count, {@code -1} if it is not known or the table is not partitioned
+     */
+    int partitions(String schema, String table);
+
+    /**
+     * Takes the next value of a cluster wide sequence starting at {@code 1}, creating the sequence on first use.
+     *
+     * @param name        the sequence name
+     * @param reserveSize the number of values reserved by the local node at a time
+     * @return the value
+     */
+    long nextValue(String name, int reserveSize);
+
+    /**
+     * Calls {@code listener} whenever a row of a table is inserted, updated or removed.
+     *
+     * @param schema   the schema of the table
+     * @param table    the table
+     * @param listener the listener, called from any thread
+     * @return closes the watch, {@code null} if the table cannot be watched
+     */
+    @Nullable
+    AutoCloseable watch(String schema, String table, Runnable listener);
+
+    /**
+     * Calls {@code listener} with the values of {@code columns} whenever a row of a table is inserted, updated or
+     * removed.
+     *
+     * @param schema   the schema of the table
+     * @param table    the table
+     * @param columns  the columns to pass, as named by {@code SELECT *} on the table
+     * @param filter   the filter of changes, run on the nodes holding the rows with keys and values in binary form,
+     *                 {@code null} to pass every change
+     * @param listener the listener, called from any thread
+     * @return closes the listener
+     * @throws IllegalArgumentException      if there is no such table
+     * @throws UnsupportedOperationException if the transport cannot listen to changes
+     */
+    AutoCloseable listen(String schema, String table, List<String> columns, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter,
+                         BiConsumer<RowChange.Type, List<Object>> listener);
+
+    void txStart(TransactionConcurrency concurrency, TransactionIsolation isolation);
+
+    boolean inTransaction();
+
+    void commit();
+
+    void rollback();
+
+    /**
+     * Checks local state only, must not block.
+     *
+     * @return {@code true} if the transport was not closed or stopped
+     */
+    boolean isAlive();
+
+    /**
+     * Checks that the cluster is reachable and active.
+     *
+     * @return {@code true} if queries can be served
+     */
+    boolean isClusterAvailable();
+
+    void close();
+
+    /**
+     * A streaming ingestion session, see {@link #openIngest(String, int, int, long)}.
+     */
+    interface Ingest {
+
+        /**
+         * Hands rows to the streamers. Blocks while the streamers have no room for them.
+         *
+         * @param sql  the {@code INSERT} statement
+         * @param rows the arguments of each row
+         * @return the number of rows submitted, including rows the streamers skip because their key exists
+         */
+        long load(String sql, List<Object[]> rows);
+
+        /**
+         * Flushes the remaining rows and closes the streamers.
+         */
+        void close();
+    }
+}
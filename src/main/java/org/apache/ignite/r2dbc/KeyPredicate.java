@@ -0,0 +1,312 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.r2dbc.SqlTokenizer.Token;
+import org.apache.ignite.r2dbc.SqlTokenizer.TokenType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An equality predicate {@code column = ?} that every row of a single table statement must satisfy. When the column is
+ * the affinity key of the table, the statement only touches the partition of the bound value.
+ */
+final class KeyPredicate {
+
+    // clauses that end a WHERE clause
+    private static final Set<String> WHERE_END = new HashSet<>(Arrays.asList("GROUP", "ORDER", "LIMIT", "OFFSET", "FOR", "HAVING"));
+
+    // anything but an alias after the table name means a join or a clause the predicate cannot be taken from
+    private static final Set<String> AFTER_TABLE = new HashSet<>(Arrays.asList("WHERE", "SET", "JOIN", "INNER", "LEFT", "RIGHT", "FULL",
+            "CROSS", "NATURAL", "GROUP", "ORDER", "LIMIT", "OFFSET", "FOR", "HAVING", "UNION", "EXCEPT", "INTERSECT", "MINUS", "USE"));
+
+    @Nullable
+    private final String schema;
+
+    private final String table;
+
+    private final String column;
+
+    private final int parameterIndex;
+
+    private KeyPredicate(@Nullable String schema, String table, String column, int parameterIndex) {
+        this.schema = schema;
+        this.table = table;
+        this.column = column;
+        this.parameterIndex = parameterIndex;
+    }
+
+    /**
+     * Finds a key predicate in a single {@code SELECT}, {@code UPDATE} or {@code DELETE} statement that reads a single
+     * table and requires {@code column = ?} in a top level conjunct of its {@code WHERE} clause.
+     *
+     * @param sql a single SQL statement
+     * @return the predicate, {@code null} if there is none
+     */
+    @Nullable
+    static KeyPredicate find(String sql) {
+        List<Token> tokens = SqlTokenizer.tokenize(sql);
+
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        // partitions restrict every table a statement reads, so subqueries rule the predicate out
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.get(i).isWord("SELECT")) {
+                return null;
+            }
+        }
+
+        int tableStart;
+
+        if (tokens.get(0).isWord("SELECT")) {
+            tableStart = indexOfWord(tokens, "FROM", 1) + 1;
+        } else if (tokens.get(0).isWord("UPDATE")) {
+            tableStart = 1;
+        } else if (tokens.get(0).isWord("DELETE") && tokens.size() > 1 && tokens.get(1).isWord("FROM")) {
+            tableStart = 2;
+        } else {
+            return null;
+        }
+
+        if (tableStart <= 0 || tableStart >= tokens.size() || !isIdentifier(tokens.get(tableStart))) {
+            return null;
+        }
+
+        String schema = null;
+        String table = tokens.get(tableStart).getIdentifier();
+        int next = tableStart + 1;
+
+        if (next + 1 < tokens.size() && tokens.get(next).isSymbol('.') && isIdentifier(tokens.get(next + 1))) {
+            schema = table;
+            table = tokens.get(next + 1).getIdentifier();
+            next += 2;
+        }
+
+        String alias = null;
+
+        if (next < tokens.size() && tokens.get(next).isWord("AS")) {
+            next++;
+        }
+
+        if (next < tokens.size() && isIdentifier(tokens.get(next)) && !AFTER_TABLE.contains(tokens.get(next).getText().toUpperCase())) {
+            alias = tokens.get(next).getIdentifier();
+            next++;
+        }
+
+        int where = indexOfWord(tokens, "WHERE", next);
+
+        // a comma would be a join, only SET assignments may sit between the table and WHERE
+        if (where < 0 || (next < where && !tokens.get(next).isWord("SET"))) {
+            return null;
+        }
+
+        int ordinal = countPlainParameters(tokens, where);
+        int depth = 0;
+
+        for (int i = where + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && token.getType() == TokenType.WORD) {
+                String word = token.getText().toUpperCase();
+
+                if (word.equals("OR") || word.equals("UNION") || word.equals("EXCEPT") || word.equals("INTERSECT") || word.equals("MINUS")) {
+                    return null;
+                }
+                if (WHERE_END.contains(word)) {
+                    break;
+                }
+            }
+        }
+
+        depth = 0;
+
+        for (int i = where + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && token.getType() == TokenType.WORD && WHERE_END.contains(token.getText().toUpperCase())) {
+                break;
+            } else if (depth == 0 && token.isSymbol('=') && i > where + 1) {
+                KeyPredicate predicate = match(tokens, i, schema, table, alias, where, ordinal);
+
+                if (predicate != null) {
+                    return predicate;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    String getSchema() {
+        return this.schema;
+    }
+
+    String getTable() {
+        return this.table;
+    }
+
+    String getColumn() {
+        return this.column;
+    }
+
+    int getParameterIndex() {
+        return this.parameterIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyPredicate{" +
+                "table=" + (this.schema == null ? "" : this.schema + '.') + this.table +
+                ", column=" + this.column +
+                ", parameterIndex=" + this.parameterIndex +
+                '}';
+    }
+
+    /**
+     * Matches {@code [alias.]column = parameter} or {@code parameter = [alias.]column} around the {@code =} at
+     * {@code eq}.
+     */
+    @Nullable
+    private static KeyPredicate match(List<Token> tokens, int eq, @Nullable String schema, String table, @Nullable String alias, int where, int ordinal) {
+        if (eq + 1 >= tokens.size()) {
+            return null;
+        }
+
+        Token right = tokens.get(eq + 1);
+
+        if (right.getType() == TokenType.PARAMETER && isConjunctEnd(tokens, eq + 2)) {
+            String column = column(tokens, eq - 1, where, schema, table, alias, true);
+            if (column != null) {
+                return new KeyPredicate(schema, table, column, parameterIndex(tokens, eq + 1, where, ordinal));
+            }
+        }
+
+        Token left = tokens.get(eq - 1);
+
+        if (left.getType() == TokenType.PARAMETER && eq - 2 >= where && isConjunctStart(tokens.get(eq - 2))) {
+            int end = eq + 2;
+
+            if (end + 1 < tokens.size() && tokens.get(end).isSymbol('.')) {
+                end += 2;
+            }
+
+            if (isConjunctEnd(tokens, end)) {
+                String column = column(tokens, end - 1, where, schema, table, alias, false);
+                if (column != null) {
+                    return new KeyPredicate(schema, table, column, parameterIndex(tokens, eq - 1, where, ordinal));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Resolves the column reference ending at {@code last}, qualified by nothing, the alias, the table or the schema
+     * and table. A {@code leading} reference must start a conjunct.
+     */
+    @Nullable
+    private static String column(List<Token> tokens, int last, int where, @Nullable String schema, String table, @Nullable String alias,
+                                 boolean leading) {
+        if (last <= where || !isIdentifier(tokens.get(last))) {
+            return null;
+        }
+
+        String column = tokens.get(last).getIdentifier();
+        int start = last;
+
+        if (last - 2 > where && tokens.get(last - 1).isSymbol('.') && isIdentifier(tokens.get(last - 2))) {
+            String qualifier = tokens.get(last - 2).getIdentifier();
+            start = last - 2;
+
+            if (last - 4 > where && tokens.get(last - 3).isSymbol('.') && isIdentifier(tokens.get(last - 4))) {
+                if (!tokens.get(last - 4).getIdentifier().equals(schema == null ? "" : schema) || !qualifier.equals(table)) {
+                    return null;
+                }
+                start = last - 4;
+            } else if (!qualifier.equals(alias) && !qualifier.equals(table)) {
+                return null;
+            }
+        }
+
+        return !leading || start - 1 == where || isConjunctStart(tokens.get(start - 1)) ? column : null;
+    }
+
+    private static boolean isConjunctStart(Token previous) {
+        return previous.isWord("WHERE") || previous.isWord("AND");
+    }
+
+    private static boolean isConjunctEnd(List<Token> tokens, int index) {
+        if (index >= tokens.size()) {
+            return true;
+        }
+
+        Token token = tokens.get(index);
+
+        return token.isWord("AND") || (token.getType() == TokenType.WORD && WHERE_END.contains(token.getText().toUpperCase()));
+    }
+
+    private static int parameterIndex(List<Token> tokens, int index, int where, int ordinal) {
+        String text = tokens.get(index).getText();
+
+        if (text.length() > 1) {
+            return Integer.parseInt(text.substring(1)) - 1;
+        }
+
+        // a plain '?' takes the next positional index
+        for (int i = where + 1; i < index; i++) {
+            if (tokens.get(i).getType() == TokenType.PARAMETER && tokens.get(i).getText().length() == 1) {
+                ordinal++;
+            }
+        }
+
+        return ordinal;
+    }
+
+    private static int countPlainParameters(List<Token> tokens, int end) {
+        int count = 0;
+
+        for (int i = 0; i < end; i++) {
+            if (tokens.get(i).getType() == TokenType.PARAMETER && tokens.get(i).getText().length() == 1) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static int indexOfWord(List<Token> tokens, String word, int from) {
+        int depth = 0;
+
+        for (int i = from; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && token.isWord(word)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isIdentifier(Token token) {
+        return token.getType() == TokenType.WORD || token.getType() == TokenType.QUOTED_IDENTIFIER;
+    }
+}
@@ -0,0 +1,256 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The parsed form of a SQL text: its statements, each with a query template, and the index of every named placeholder.
+ * Instances are immutable and shared through {@link StatementCache}.
+ */
+final class ParsedStatement {
+
+    static final String PARAMETER_PATTERN = "([$?])([\\d]+)";
+
+    private final String sql;
+
+    private final List<Fragment> fragments;
+
+    private final Map<String, Integer> placeholders;
+
+    private final int parameterCount;
+
+    private ParsedStatement(String sql, List<Fragment> fragments, Map<String, Integer> placeholders, int parameterCount) {
+        this.sql = sql;
+        this.fragments = fragments;
+        this.placeholders = placeholders;
+        this.parameterCount = parameterCount;
+    }
+
+    static ParsedStatement parse(String sql) {
+        Objects.requireNonNull(sql, "sql must not be null");
+
+        List<Fragment> fragments = new ArrayList<>();
+        Map<String, Integer> placeholders = new HashMap<>();
+        int numbered = 0;
+        int positional = 0;
+        int start = 0;
+        boolean empty = true;
+
+        // semicolons in literals, quoted identifiers and comments do not separate statements
+        for (SqlTokenizer.Token token : SqlTokenizer.tokenize(sql)) {
+            if (token.isSymbol(';')) {
+                if (!empty) {
+                    fragments.add(new Fragment(sql.substring(start, token.getStart()).trim()));
+                }
+                empty = true;
+                continue;
+            }
+
+            // a statement starts at its first token, leading comments are left out so its keyword is recognized
+            if (empty) {
+                start = token.getStart();
+                empty = false;
+            }
+
+            if (token.getType() == SqlTokenizer.TokenType.PARAMETER) {
+                if (token.getText().length() > 1) {
+                    int number = Integer.parseInt(token.getText().substring(1));
+                    placeholders.put(token.getText(), number - 1);
+                    numbered = Math.max(numbered, number);
+                } else {
+                    positional++;
+                }
+            }
+        }
+
+        if (!empty) {
+            fragments.add(new Fragment(sql.substring(start).trim()));
+        }
+
+        // the parameter count is the highest placeholder number or the number of plain '?' markers
+        return new ParsedStatement(sql, Collections.unmodifiableList(fragments), placeholders, Math.max(numbered, positional));
+    }
+
+    String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * Returns the statements of the SQL text, in order.
+     *
+     * @return the statements
+     */
+    List<Fragment> getFragments() {
+        return this.fragments;
+    }
+
+    /**
+     * Returns the number of parameters a binding of this statement has.
+     *
+     * @return the number of parameters
+     */
+    int getParameterCount() {
+        return this.parameterCount;
+    }
+
+    /**
+     * Resolves a placeholder name such as {@code $1} or {@code ?1} to its zero-based parameter index.
+     *
+     * @param identifier the placeholder name
+     * @return the parameter index
+     * @throws IllegalArgumentException if {@code identifier} does not name a placeholder
+     */
+    int getIndex(String identifier) {
+        Integer index = this.placeholders.get(identifier);
+
+        if (index != null) {
+            return index;
+        }
+
+        // the placeholder may be bound by name although the SQL uses plain '?' markers
+        for (int i = identifier.length() - 1; i >= 0; i--) {
+            if (identifier.charAt(i) == '$' || identifier.charAt(i) == '?') {
+                int end = parameterEnd(identifier, i);
+
+                if (end > 0) {
+                    return Integer.parseInt(identifier.substring(i + 1, end)) - 1;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Identifier '%s' is not a valid identifier. Should be of the pattern '%s'.", identifier, PARAMETER_PATTERN));
+    }
+
+    /**
+     * Checks whether {@code sql} returns rows, judging from its leading keyword.
+     *
+     * @param sql a single SQL statement
+     * @return {@code true} if the statement is a query
+     */
+    static boolean isQuery(String sql) {
+        String keyword = keyword(sql);
+
+        return keyword.equalsIgnoreCase("SELECT") || keyword.equalsIgnoreCase("WITH") || keyword.equalsIgnoreCase("EXPLAIN")
+                || keyword.equalsIgnoreCase("SHOW") || keyword.equalsIgnoreCase("VALUES") || keyword.equalsIgnoreCase("TABLE");
+    }
+
+    /**
+     * Checks whether {@code sql} modifies rows and returns an update count, judging from its leading keyword.
+     *
+     * @param sql a single SQL statement
+     * @return {@code true} if the statement is an {@code INSERT}, {@code UPDATE}, {@code DELETE} or {@code MERGE}
+     */
+    static boolean isDml(String sql) {
+        String keyword = keyword(sql);
+
+        return keyword.equalsIgnoreCase("INSERT") || keyword.equalsIgnoreCase("UPDATE") || keyword.equalsIgnoreCase("DELETE")
+                || keyword.equalsIgnoreCase("MERGE");
+    }
+
+    @Override
+    public String toString() {
+        return "ParsedStatement{" +
+                "sql='" + this.sql + '\'' +
+                ", statements=" + this.fragments.size() +
+                ", placeholders=" + this.placeholders +
+                ", parameterCount=" + this.parameterCount +
+                '}';
+    }
+
+    private static String keyword(String sql) {
+        int start = 0;
+
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+
+        int end = start;
+
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+
+        return sql.substring(start, end);
+    }
+
+    /**
+     * @return the end of the placeholder starting at {@code start}, or {@code -1} if there is none
+     */
+    private static int parameterEnd(String s, int start) {
+        char c = s.charAt(start);
+
+        if (c != '$' && c != '?') {
+            return -1;
+        }
+
+        int end = start + 1;
+
+        while (end < s.length() && Character.isDigit(s.charAt(end))) {
+            end++;
+        }
+
+        return end > start + 1 ? end : -1;
+    }
+
+    /**
+     * A single statement of a SQL text.
+     */
+    static final class Fragment {
+
+        private final SqlFieldsQuery template;
+
+        private final boolean query;
+
+        private final boolean dml;
+
+        @Nullable
+        private final KeyPredicate keyPredicate;
+
+        private Fragment(String sql) {
+            this.template = new SqlFieldsQuery(sql);
+            this.query = ParsedStatement.isQuery(sql);
+            this.dml = ParsedStatement.isDml(sql);
+            this.keyPredicate = this.query || this.dml ? KeyPredicate.find(sql) : null;
+        }
+
+        /**
+         * Returns the query template. Templates are shared and must be copied before they are modified.
+         *
+         * @return the query template
+         */
+        SqlFieldsQuery getTemplate() {
+            return this.template;
+        }
+
+        boolean isQuery() {
+            return this.query;
+        }
+
+        boolean isDml() {
+            return this.dml;
+        }
+
+        /**
+         * @return the predicate restricting the statement to a single key, {@code null} if there is none
+         */
+        @Nullable
+        KeyPredicate getKeyPredicate() {
+            return this.keyPredicate;
+        }
+
+        @Override
+        public String toString() {
+            return "Fragment{" +
+                    "sql='" + this.template.getSql() + '\'' +
+                    ", keyPredicate=" + this.keyPredicate +
+                    '}';
+        }
+    }
+}
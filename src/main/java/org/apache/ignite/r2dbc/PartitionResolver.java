@@ -0,0 +1,236 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.affinity.AffinityTopologyVersion;
+import org.apache.ignite.internal.processors.cache.DynamicCacheDescriptor;
+import org.apache.ignite.internal.processors.query.GridQueryTypeDescriptor;
+import org.apache.ignite.internal.processors.query.QueryUtils;
+import org.apache.ignite.internal.util.IgniteUtils;
+import org.apache.ignite.lang.IgniteUuid;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the value bound to a {@link KeyPredicate} to the partition holding its rows, and tables to their caches. The
+ * affinity metadata of each table is looked up once and kept until the cache behind the table is dropped or recreated.
+ * Tables that were not found are looked up again once a cache has started or stopped.
+ */
+final class PartitionResolver {
+
+    private final Ignite ignite;
+
+    private final GridKernalContext context;
+
+    private final Map<String, TableAffinity> tables = new ConcurrentHashMap<>();
+
+    PartitionResolver(Ignite ignite) {
+        this.ignite = Objects.requireNonNull(ignite, "ignite must not be null");
+        this.context = ((IgniteEx) ignite).context();
+    }
+
+    /**
+     * Resolves the partition of {@code value}.
+     *
+     * @param schema    the schema of the statement, used when the predicate names no schema
+     * @param predicate the key predicate
+     * @param value     the value bound to the predicate
+     * @return the partition, {@code -1} if the predicate is not on the affinity key of a partitioned table
+     */
+    int partition(String schema, KeyPredicate predicate, Object value) {
+        String schemaName = predicate.getSchema() != null ? predicate.getSchema() : schema;
+
+        return table(schemaName, predicate.getTable()).partition(predicate.getColumn(), value);
+    }
+
+    /**
+     * Returns the number of partitions of a partitioned table.
+     *
+     * @param schema the schema of the table
+     * @param table  the table
+     * @return the partition count, {@code -1} if there is no such table or it is not partitioned
+     */
+    int partitions(String schema, String table) {
+        return table(schema, table).partitions;
+    }
+
+    /**
+     * Finds the cache holding the rows of a table.
+     *
+     * @param schema the schema of the table
+     * @param table  the table
+     * @return the cache name, {@code null} if there is no such table
+     */
+    @Nullable
+    String cacheName(String schema, String table) {
+        return table(schema, table).cacheName;
+    }
+
+    /**
+     * Finds the type describing the rows of a table.
+     *
+     * @param schema the schema of the table
+     * @param table  the table
+     * @return the type, {@code null} if there is no such table
+     */
+    @Nullable
+    GridQueryTypeDescriptor type(String schema, String table) {
+        return table(schema, table).type;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionResolver{" +
+                "tables=" + this.tables.size() +
+                '}';
+    }
+
+    private TableAffinity table(String schema, String table) {
+        String key = schema + '.' + table;
+        TableAffinity affinity = this.tables.get(key);
+
+        if (affinity == null || !affinity.isCurrent(this.context)) {
+            affinity = resolve(schema, table);
+            this.tables.put(key, affinity);
+        }
+
+        return affinity;
+    }
+
+    private TableAffinity resolve(String schema, String table) {
+        // read before the lookup, so a cache started meanwhile leaves the result stale
+        AffinityTopologyVersion topologyVersion = this.context.discovery().topologyVersionEx();
+
+        for (String cacheName : this.context.cache().cacheNames()) {
+            for (GridQueryTypeDescriptor type : this.context.query().types(cacheName)) {
+                if (schema.equals(type.schemaName()) && table.equals(type.tableName())) {
+                    TableAffinity affinity = TableAffinity.of(this.ignite, this.context, cacheName, type);
+
+                    return affinity != null ? affinity : TableAffinity.missing(topologyVersion);
+                }
+            }
+        }
+
+        return TableAffinity.missing(topologyVersion);
+    }
+
+    /**
+     * The affinity metadata of a table: its cache, its partition count and the column whose value alone decides the
+     * partition, if any.
+     */
+    private static final class TableAffinity {
+
+        // null if the table was not found
+        @Nullable
+        private final String cacheName;
+
+        @Nullable
+        private final GridQueryTypeDescriptor type;
+
+        // -1 if the table was not found or is not partitioned
+        private final int partitions;
+
+        @Nullable
+        private final IgniteUuid deploymentId;
+
+        // the topology version a missing table was looked up at, cache starts and stops change it
+        @Nullable
+        private final AffinityTopologyVersion topologyVersion;
+
+        @Nullable
+        private final Affinity<Object> affinity;
+
+        @Nullable
+        private final String column;
+
+        @Nullable
+        private final Class<?> columnClass;
+
+        private final boolean keyColumn;
+
+        private TableAffinity(@Nullable String cacheName, @Nullable GridQueryTypeDescriptor type, int partitions, @Nullable IgniteUuid deploymentId,
+                              @Nullable AffinityTopologyVersion topologyVersion, @Nullable Affinity<Object> affinity, @Nullable String column,
+                              @Nullable Class<?> columnClass, boolean keyColumn) {
+            this.cacheName = cacheName;
+            this.type = type;
+            this.partitions = partitions;
+            this.deploymentId = deploymentId;
+            this.topologyVersion = topologyVersion;
+            this.affinity = affinity;
+            this.column = column;
+            this.columnClass = columnClass;
+            this.keyColumn = keyColumn;
+        }
+
+        @Nullable
+        static TableAffinity of(Ignite ignite, GridKernalContext context, String cacheName, GridQueryTypeDescriptor type) {
+            DynamicCacheDescriptor descriptor = context.cache().cacheDescriptor(cacheName);
+
+            if (descriptor == null) {
+                return null;
+            }
+
+            // replicated caches reject explicit partitions
+            if (descriptor.cacheConfiguration().getCacheMode() != CacheMode.PARTITIONED) {
+                return new TableAffinity(cacheName, type, -1, descriptor.deploymentId(), null, null, null, null, false);
+            }
+
+            Affinity<Object> affinity = ignite.affinity(cacheName);
+
+            // custom mappers compute the affinity key from the whole key
+            if (type.customAffinityKeyMapper()) {
+                return new TableAffinity(cacheName, type, affinity.partitions(), descriptor.deploymentId(), null, null, null, null, false);
+            }
+
+            String column;
+            Class<?> columnClass;
+            boolean keyColumn;
+
+            if (type.affinityKey() != null) {
+                column = type.affinityKey();
+                columnClass = type.fields().get(column);
+                keyColumn = false;
+            } else if (QueryUtils.isSqlType(type.keyClass())) {
+                column = type.keyFieldName() != null ? type.keyFieldName() : QueryUtils.KEY_FIELD_NAME;
+                columnClass = type.keyClass();
+                keyColumn = true;
+            } else {
+                // a composite key without an affinity key needs every key column
+                return new TableAffinity(cacheName, type, affinity.partitions(), descriptor.deploymentId(), null, null, null, null, false);
+            }
+
+            return new TableAffinity(cacheName, type, affinity.partitions(), descriptor.deploymentId(), null, affinity, column, columnClass, keyColumn);
+        }
+
+        static TableAffinity missing(AffinityTopologyVersion topologyVersion) {
+            return new TableAffinity(null, null, -1, null, topologyVersion, null, null, null, false);
+        }
+
+        boolean isCurrent(GridKernalContext context) {
+            if (this.cacheName == null) {
+                return context.discovery().topologyVersionEx().equals(this.topologyVersion);
+            }
+
+            DynamicCacheDescriptor descriptor = context.cache().cacheDescriptor(this.cacheName);
+
+            return descriptor != null && this.deploymentId.equals(descriptor.deploymentId());
+        }
+
+        int partition(String column, Object value) {
+            boolean matches = column.equals(this.column) || (this.keyColumn && column.equals(QueryUtils.KEY_FIELD_NAME));
+
+            // a value of another type would be converted by the SQL engine and may hash to another partition
+            if (this.affinity == null || !matches || this.columnClass == null || !IgniteUtils.box(this.columnClass).isInstance(value)) {
+                return -1;
+            }
+
+            return this.affinity.partition(value);
+        }
+    }
+}
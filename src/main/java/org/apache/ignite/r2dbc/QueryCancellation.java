@@ -0,0 +1,103 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Links the subscriber of a query to the query running on the connection scheduler. Cancelling stops the query while it
+ * executes and closes its cursor until the cursor is handed to a result, which owns it from then on.
+ */
+final class QueryCancellation {
+
+    @Nullable
+    private Runnable action;
+
+    @Nullable
+    private FieldsQueryCursor<List<?>> cursor;
+
+    private boolean cancelled;
+
+    private boolean done;
+
+    /**
+     * Registers how the transport stops the running query. Runs {@code action} at once if the query is cancelled
+     * already.
+     *
+     * @param action stops the query, called from any thread
+     */
+    void onCancel(Runnable action) {
+        synchronized (this) {
+            if (!this.cancelled) {
+                this.action = action;
+                return;
+            }
+        }
+
+        action.run();
+    }
+
+    /**
+     * Takes over the cursor of the executed query.
+     *
+     * @param cursor the cursor
+     * @return {@code false} if the query was cancelled meanwhile and {@code cursor} was closed
+     */
+    boolean attach(FieldsQueryCursor<List<?>> cursor) {
+        synchronized (this) {
+            if (!this.cancelled) {
+                this.action = null;
+                this.cursor = cursor;
+                return true;
+            }
+        }
+
+        cursor.close();
+        return false;
+    }
+
+    /**
+     * Marks the cursor as handed to its result, later cancellation has no effect.
+     */
+    synchronized void complete() {
+        this.action = null;
+        this.cursor = null;
+        this.done = true;
+    }
+
+    synchronized boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Stops the query or closes its cursor.
+     *
+     * @return {@code true} if the query had not completed yet
+     */
+    boolean cancel() {
+        Runnable action;
+        FieldsQueryCursor<List<?>> cursor;
+
+        synchronized (this) {
+            if (this.cancelled || this.done) {
+                return false;
+            }
+
+            this.cancelled = true;
+            action = this.action;
+            cursor = this.cursor;
+            this.action = null;
+            this.cursor = null;
+        }
+
+        if (action != null) {
+            action.run();
+        }
+        if (cursor != null) {
+            cursor.close();
+        }
+
+        return true;
+    }
+}
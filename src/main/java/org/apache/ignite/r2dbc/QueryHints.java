@@ -0,0 +1,249 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Planner and execution flags of the queries a statement generates. A flag that is not set falls back to the connection
+ * default, see {@link IgniteConnection#setQueryHints(QueryHints)}, and then to the Ignite default.
+ */
+public final class QueryHints {
+
+    /**
+     * Hints with no flag set.
+     */
+    public static final QueryHints NONE = builder().build();
+
+    @Nullable
+    private final Boolean collocated;
+
+    @Nullable
+    private final Boolean replicatedOnly;
+
+    @Nullable
+    private final Boolean distributedJoins;
+
+    @Nullable
+    private final Boolean enforceJoinOrder;
+
+    @Nullable
+    private final Boolean lazy;
+
+    private QueryHints(@Nullable Boolean collocated, @Nullable Boolean replicatedOnly, @Nullable Boolean distributedJoins, @Nullable Boolean enforceJoinOrder,
+                       @Nullable Boolean lazy) {
+        this.collocated = collocated;
+        this.replicatedOnly = replicatedOnly;
+        this.distributedJoins = distributedJoins;
+        this.enforceJoinOrder = enforceJoinOrder;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Returns a new {@link Builder}.
+     *
+     * @return a {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Nullable
+    Boolean getCollocated() {
+        return this.collocated;
+    }
+
+    @Nullable
+    Boolean getReplicatedOnly() {
+        return this.replicatedOnly;
+    }
+
+    @Nullable
+    Boolean getDistributedJoins() {
+        return this.distributedJoins;
+    }
+
+    @Nullable
+    Boolean getEnforceJoinOrder() {
+        return this.enforceJoinOrder;
+    }
+
+    @Nullable
+    Boolean getLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Returns these hints with every flag that is not set taken from {@code defaults}.
+     *
+     * @param defaults the default hints
+     * @return the combined hints
+     */
+    QueryHints withDefaults(QueryHints defaults) {
+        return new QueryHints(
+                this.collocated != null ? this.collocated : defaults.collocated,
+                this.replicatedOnly != null ? this.replicatedOnly : defaults.replicatedOnly,
+                this.distributedJoins != null ? this.distributedJoins : defaults.distributedJoins,
+                this.enforceJoinOrder != null ? this.enforceJoinOrder : defaults.enforceJoinOrder,
+                this.lazy != null ? this.lazy : defaults.lazy);
+    }
+
+    /**
+     * Sets the flags that are set on {@code query}, leaving the others untouched.
+     *
+     * @param query the query
+     */
+    @SuppressWarnings("deprecation")
+    void applyTo(SqlFieldsQuery query) {
+        if (this.collocated != null) {
+            query.setCollocated(this.collocated);
+        }
+        if (this.replicatedOnly != null) {
+            query.setReplicatedOnly(this.replicatedOnly);
+        }
+        if (this.distributedJoins != null) {
+            query.setDistributedJoins(this.distributedJoins);
+        }
+        if (this.enforceJoinOrder != null) {
+            query.setEnforceJoinOrder(this.enforceJoinOrder);
+        }
+        if (this.lazy != null) {
+            query.setLazy(this.lazy);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryHints that = (QueryHints) o;
+        return Objects.equals(this.collocated, that.collocated) &&
+                Objects.equals(this.replicatedOnly, that.replicatedOnly) &&
+                Objects.equals(this.distributedJoins, that.distributedJoins) &&
+                Objects.equals(this.enforceJoinOrder, that.enforceJoinOrder) &&
+                Objects.equals(this.lazy, that.lazy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.collocated, this.replicatedOnly, this.distributedJoins, this.enforceJoinOrder, this.lazy);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryHints{" +
+                "collocated=" + this.collocated +
+                ", replicatedOnly=" + this.replicatedOnly +
+                ", distributedJoins=" + this.distributedJoins +
+                ", enforceJoinOrder=" + this.enforceJoinOrder +
+                ", lazy=" + this.lazy +
+                '}';
+    }
+
+    /**
+     * A builder for {@link QueryHints} instances.
+     * <p>
+     * <i>This class is not threadsafe</i>
+     */
+    public static final class Builder {
+
+        @Nullable
+        private Boolean collocated;
+
+        @Nullable
+        private Boolean replicatedOnly;
+
+        @Nullable
+        private Boolean distributedJoins;
+
+        @Nullable
+        private Boolean enforceJoinOrder;
+
+        @Nullable
+        private Boolean lazy;
+
+        private Builder() {
+        }
+
+        /**
+         * Returns the configured {@link QueryHints}.
+         *
+         * @return the configured {@link QueryHints}
+         */
+        public QueryHints build() {
+            return new QueryHints(this.collocated, this.replicatedOnly, this.distributedJoins, this.enforceJoinOrder, this.lazy);
+        }
+
+        /**
+         * Declares that the rows of each {@code GROUP BY} group live on a single node, so groups are aggregated where
+         * they are stored instead of on the reducer.
+         *
+         * @param collocated whether the data is collocated by the grouping columns
+         * @return this {@link Builder}
+         */
+        public Builder collocated(boolean collocated) {
+            this.collocated = collocated;
+            return this;
+        }
+
+        /**
+         * Declares that the query only reads replicated caches, so it runs on the local copy without a reduce phase.
+         *
+         * @param replicatedOnly whether only replicated caches are read
+         * @return this {@link Builder}
+         */
+        public Builder replicatedOnly(boolean replicatedOnly) {
+            this.replicatedOnly = replicatedOnly;
+            return this;
+        }
+
+        /**
+         * Allows joins of data that is not collocated, at the cost of moving rows between nodes.
+         *
+         * @param distributedJoins whether joins may fetch rows from other nodes
+         * @return this {@link Builder}
+         */
+        public Builder distributedJoins(boolean distributedJoins) {
+            this.distributedJoins = distributedJoins;
+            return this;
+        }
+
+        /**
+         * Makes the planner join tables in the order they appear in the query.
+         *
+         * @param enforceJoinOrder whether the join order is kept
+         * @return this {@link Builder}
+         */
+        public Builder enforceJoinOrder(boolean enforceJoinOrder) {
+            this.enforceJoinOrder = enforceJoinOrder;
+            return this;
+        }
+
+        /**
+         * Streams result pages as they are produced instead of materializing the whole result on the server.
+         *
+         * @param lazy whether the query runs lazily
+         * @return this {@link Builder}
+         */
+        public Builder lazy(boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Builder{" +
+                    "collocated=" + this.collocated +
+                    ", replicatedOnly=" + this.replicatedOnly +
+                    ", distributedJoins=" + this.distributedJoins +
+                    ", enforceJoinOrder=" + this.enforceJoinOrder +
+                    ", lazy=" + this.lazy +
+                    '}';
+        }
+    }
+}
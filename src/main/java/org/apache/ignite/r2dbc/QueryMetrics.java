@@ -0,0 +1,68 @@
+package org.apache.ignite.r2dbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the queries run by the connections of an {@link IgniteConnectionFactory}.
+ */
+public final class QueryMetrics {
+
+    private final LongAdder cancelledQueries = new LongAdder();
+
+    private final LongAdder coalescedQueries = new LongAdder();
+
+    private final LongAdder groupedUpdates = new LongAdder();
+
+    QueryMetrics() {
+    }
+
+    /**
+     * Returns the number of queries stopped because their subscriber cancelled before all rows were read.
+     *
+     * @return the number of cancelled queries
+     */
+    public long getCancelledQueries() {
+        return this.cancelledQueries.sum();
+    }
+
+    /**
+     * Returns the number of queries served by the execution of an identical query that ran at the same time, see
+     * {@link IgniteConnectionConfiguration.Builder#coalescingMaxRows(int)}.
+     *
+     * @return the number of coalesced queries
+     */
+    public long getCoalescedQueries() {
+        return this.coalescedQueries.sum();
+    }
+
+    /**
+     * Returns the number of single row updates that ran in one batched execution with the updates of other callers,
+     * see {@link IgniteConnectionConfiguration.Builder#groupedUpdateSize(int)}.
+     *
+     * @return the number of grouped updates
+     */
+    public long getGroupedUpdates() {
+        return this.groupedUpdates.sum();
+    }
+
+    void onCancelled() {
+        this.cancelledQueries.increment();
+    }
+
+    void onCoalesced() {
+        this.coalescedQueries.increment();
+    }
+
+    void onGrouped(int updates) {
+        this.groupedUpdates.add(updates);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryMetrics{" +
+                "cancelledQueries=" + this.cancelledQueries.sum() +
+                ", coalescedQueries=" + this.coalescedQueries.sum() +
+                ", groupedUpdates=" + this.groupedUpdates.sum() +
+                '}';
+    }
+}
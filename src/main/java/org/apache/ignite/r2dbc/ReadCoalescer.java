@@ -0,0 +1,187 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical queries that run at the same time share one execution. The first execution of a query becomes its
+ * flight; executions of the same SQL text with the same schema, arguments and hints that start while it runs wait for
+ * its rows instead of opening cursors of their own. Rows are only shared up to a maximum count, executions of a flight
+ * with more rows run on their own.
+ */
+final class ReadCoalescer {
+
+    private final int maxRows;
+
+    private final QueryMetrics queryMetrics;
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxRows      the maximum number of rows shared by a flight, {@code 0} disables coalescing
+     * @param queryMetrics the metrics counting the coalesced executions
+     */
+    ReadCoalescer(int maxRows, QueryMetrics queryMetrics) {
+        if (maxRows < 0) {
+            throw new IllegalArgumentException("maxRows must be greater or equal to zero");
+        }
+
+        this.maxRows = maxRows;
+        this.queryMetrics = Objects.requireNonNull(queryMetrics, "queryMetrics must not be null");
+    }
+
+    boolean isEnabled() {
+        return this.maxRows > 0;
+    }
+
+    int getMaxRows() {
+        return this.maxRows;
+    }
+
+    /**
+     * Executes {@code query} as a new flight, or joins the flight of an identical query.
+     *
+     * @param query     the query with its schema, arguments and hints set
+     * @param leader    executes a new flight, and must {@link Flight#share} its rows or {@link Flight#release} it
+     * @param alone     executes the query on its own, when the joined flight has no rows to share
+     * @param scheduler the scheduler the shared rows are handed over on
+     * @return a {@link Mono} emitting the {@link IgniteResult}
+     */
+    Mono<IgniteResult> execute(SqlFieldsQuery query, Function<Flight, Mono<IgniteResult>> leader, Supplier<Mono<IgniteResult>> alone,
+                               Scheduler scheduler) {
+        Key key = new Key(query);
+        Flight flight = new Flight(key);
+        Flight running = this.flights.putIfAbsent(key, flight);
+
+        if (running == null) {
+            return leader.apply(flight);
+        }
+
+        return running.rows
+                // the flight completes on the thread of its own connection, which must not run the work of others
+                .publishOn(scheduler)
+                .doOnNext(rows -> this.queryMetrics.onCoalesced())
+                .map(rows -> new IgniteResult(rows.rowMetadata, Flux.fromIterable(rows.rows), query.getPageSize(), Mono.empty()))
+                .switchIfEmpty(Mono.defer(alone));
+    }
+
+    @Override
+    public String toString() {
+        return "ReadCoalescer{" +
+                "maxRows=" + this.maxRows +
+                ", flights=" + this.flights.size() +
+                '}';
+    }
+
+    /**
+     * A running execution that identical queries wait for.
+     */
+    final class Flight {
+
+        private final Key key;
+
+        private final MonoProcessor<Rows> rows = MonoProcessor.create();
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Flight(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Hands the rows of the flight to the queries that joined it.
+         *
+         * @param rowMetadata the metadata of the rows
+         * @param rows        every row of the result, at most {@link #getMaxRows()}
+         */
+        void share(IgniteRowMetadata rowMetadata, List<IgniteRow> rows) {
+            ReadCoalescer.this.flights.remove(this.key, this);
+
+            if (this.done.compareAndSet(false, true)) {
+                this.rows.onNext(new Rows(rowMetadata, rows));
+            }
+        }
+
+        /**
+         * Ends the flight, the queries that joined it and got no rows run on their own.
+         */
+        void release() {
+            ReadCoalescer.this.flights.remove(this.key, this);
+
+            if (this.done.compareAndSet(false, true)) {
+                this.rows.onComplete();
+            }
+        }
+    }
+
+    private static final class Rows {
+
+        private final IgniteRowMetadata rowMetadata;
+
+        private final List<IgniteRow> rows;
+
+        private Rows(IgniteRowMetadata rowMetadata, List<IgniteRow> rows) {
+            this.rowMetadata = rowMetadata;
+            this.rows = rows;
+        }
+    }
+
+    private static final class Key {
+
+        private final SqlFieldsQuery query;
+
+        @Nullable
+        private final String schema;
+
+        private final Object[] args;
+
+        private final int hash;
+
+        private Key(SqlFieldsQuery query) {
+            // the arguments are the array of a binding, which its statement may bind again
+            this.query = query;
+            this.schema = query.getSchema();
+            this.args = query.getArgs() != null ? query.getArgs().clone() : new Object[0];
+            this.hash = 31 * Objects.hash(query.getSql(), this.schema) + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return this.hash == that.hash && this.query.getSql().equals(that.query.getSql()) && Objects.equals(this.schema, that.schema)
+                    && Arrays.deepEquals(this.args, that.args) && sameHints(this.query, that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @SuppressWarnings("deprecation")
+        private static boolean sameHints(SqlFieldsQuery a, SqlFieldsQuery b) {
+            // the hints that may change the rows of a query, or how long it may run
+            return a.isDistributedJoins() == b.isDistributedJoins() && a.isCollocated() == b.isCollocated()
+                    && a.isEnforceJoinOrder() == b.isEnforceJoinOrder() && a.isReplicatedOnly() == b.isReplicatedOnly()
+                    && a.isLocal() == b.isLocal() && a.getTimeout() == b.getTimeout() && Arrays.equals(a.getPartitions(), b.getPartitions());
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.r2dbc.SqlTokenizer.Token;
+import org.apache.ignite.r2dbc.SqlTokenizer.TokenType;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the rows of queries keyed by SQL text, schema and arguments, for statements that opt in with
+ * {@link IgniteStatement#cached(boolean)}. Entries expire after a fixed time and are dropped as soon as a row of a table
+ * they read changes, which a continuous query on the cache behind each table reports. The least recently used entry is
+ * evicted once the cache is full.
+ */
+public final class ResultCache {
+
+    // words that cannot be a table alias
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL",
+            "ON", "USING", "GROUP", "ORDER", "LIMIT", "OFFSET", "FOR", "HAVING", "UNION", "EXCEPT", "INTERSECT", "MINUS", "SET", "VALUES", "USE"));
+
+    private final Logger logger = Loggers.getLogger(this.getClass());
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final Map<Key, Entry> entries;
+
+    // the continuous query of each watched table, ended when the connection factory is closed
+    private final Map<String, AutoCloseable> watches = new ConcurrentHashMap<>();
+
+    // advanced on every change, rows read while it moved may be stale and are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile boolean closed;
+
+    ResultCache(int maxSize, Duration ttl) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be greater or equal to zero");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlNanos = Objects.requireNonNull(ttl, "ttl must not be null").toNanos();
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ResultCache.this.maxSize) {
+                    ResultCache.this.evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return this.maxSize > 0 && !this.closed;
+    }
+
+    /**
+     * Returns the cached rows of {@code query} as a new result.
+     *
+     * @param query the query with its schema and arguments set
+     * @return the result, {@code null} if the rows are not cached or expired
+     */
+    @Nullable
+    IgniteResult get(SqlFieldsQuery query) {
+        Key key = new Key(query, false);
+        Entry entry;
+
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+
+            if (entry != null && System.nanoTime() - entry.created > this.ttlNanos) {
+                this.entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        this.hits.increment();
+        return new IgniteResult(entry.rowMetadata, Flux.fromIterable(entry.rows), query.getPageSize(), Mono.empty());
+    }
+
+    /**
+     * Returns the generation to pass to {@link #put}, taken before the query runs.
+     *
+     * @return the current generation
+     */
+    long generation() {
+        return this.generation.get();
+    }
+
+    /**
+     * Makes sure every table of {@code tables} is watched for changes.
+     *
+     * @param transport the transport registering the watches
+     * @param tables    the tables, as {@code SCHEMA.TABLE}
+     * @return {@code false} if a table cannot be watched, so rows read from it must not be cached
+     */
+    boolean watch(IgniteTransport transport, Set<String> tables) {
+        for (String table : tables) {
+            if (this.watches.containsKey(table)) {
+                continue;
+            }
+
+            int dot = table.indexOf('.');
+            AutoCloseable watch = transport.watch(table.substring(0, dot), table.substring(dot + 1), () -> invalidate(Collections.singleton(table)));
+
+            if (watch == null) {
+                return false;
+            }
+
+            if (this.watches.putIfAbsent(table, watch) != null || this.closed) {
+                close(watch);
+            }
+        }
+
+        return !this.closed;
+    }
+
+    /**
+     * Caches the rows of {@code query} unless a watched table changed since {@code generation} was taken.
+     *
+     * @param query       the query with its schema and arguments set
+     * @param tables      the tables read by the query
+     * @param rowMetadata the metadata of the rows
+     * @param rows        the rows
+     * @param generation  the generation taken before the query ran
+     */
+    void put(SqlFieldsQuery query, Set<String> tables, IgniteRowMetadata rowMetadata, List<IgniteRow> rows, long generation) {
+        synchronized (this.entries) {
+            if (this.generation.get() == generation) {
+                // the arguments are the array of a binding, which its statement may bind again
+                this.entries.put(new Key(query, true), new Entry(tables, rowMetadata, rows, System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * Drops the entries reading any of {@code tables}.
+     *
+     * @param tables the changed tables, as {@code SCHEMA.TABLE}, or {@code null} to drop every entry
+     */
+    void invalidate(@Nullable Set<String> tables) {
+        int removed = 0;
+
+        synchronized (this.entries) {
+            this.generation.incrementAndGet();
+
+            for (Iterator<Entry> iterator = this.entries.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+
+                if (tables == null || !Collections.disjoint(entry.tables, tables)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+
+        this.invalidations.add(removed);
+    }
+
+    /**
+     * Ends the watches and drops every entry.
+     */
+    void close() {
+        this.closed = true;
+
+        for (Iterator<AutoCloseable> iterator = this.watches.values().iterator(); iterator.hasNext(); ) {
+            close(iterator.next());
+            iterator.remove();
+        }
+
+        invalidate(null);
+    }
+
+    /**
+     * Finds the tables a single statement reads or writes.
+     *
+     * @param sql    the statement
+     * @param schema the schema the statement runs in
+     * @return the tables as {@code SCHEMA.TABLE}, {@code null} if a table reference is not understood
+     */
+    @Nullable
+    static Set<String> tables(String sql, String schema) {
+        List<Token> tokens = SqlTokenizer.tokenize(sql);
+        Set<String> tables = new HashSet<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            boolean from = token.isWord("FROM");
+
+            if (!from && !token.isWord("JOIN") && !token.isWord("INTO") && !(i == 0 && token.isWord("UPDATE"))) {
+                continue;
+            }
+
+            for (int j = i + 1; ; j++) {
+                if (j >= tokens.size()) {
+                    return null;
+                }
+
+                // subqueries name their own tables
+                if (tokens.get(j).isSymbol('(')) {
+                    break;
+                }
+
+                if (!isIdentifier(tokens.get(j))) {
+                    return null;
+                }
+
+                String tableSchema = schema.toUpperCase();
+                String table = tokens.get(j).getIdentifier();
+
+                if (j + 2 < tokens.size() && tokens.get(j + 1).isSymbol('.') && isIdentifier(tokens.get(j + 2))) {
+                    tableSchema = table;
+                    table = tokens.get(j + 2).getIdentifier();
+                    j += 2;
+                }
+
+                // table functions produce rows no continuous query reports
+                if (j + 1 < tokens.size() && tokens.get(j + 1).isSymbol('(') && !token.isWord("INTO")) {
+                    return null;
+                }
+
+                tables.add(tableSchema + '.' + table);
+
+                if (!from) {
+                    break;
+                }
+
+                if (j + 1 < tokens.size() && tokens.get(j + 1).isWord("AS")) {
+                    j++;
+                }
+                if (j + 1 < tokens.size() && isIdentifier(tokens.get(j + 1)) && !KEYWORDS.contains(tokens.get(j + 1).getText().toUpperCase())) {
+                    j++;
+                }
+                if (j + 1 >= tokens.size() || !tokens.get(j + 1).isSymbol(',')) {
+                    break;
+                }
+                j++;
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * @return the number of queries served from the cache
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of cacheable queries that had to run on the cluster
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of entries dropped because a table they read changed
+     */
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+    /**
+     * @return the number of entries evicted to stay within the maximum size
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache{" +
+                "maxSize=" + this.maxSize +
+                ", size=" + size() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", invalidations=" + getInvalidations() +
+                ", evictions=" + getEvictions() +
+                '}';
+    }
+
+    private static boolean isIdentifier(Token token) {
+        return token.getType() == TokenType.WORD || token.getType() == TokenType.QUOTED_IDENTIFIER;
+    }
+
+    private void close(AutoCloseable watch) {
+        try {
+            watch.close();
+        } catch (Exception e) {
+            this.logger.debug("Failed to close the watch of a cached table", e);
+        }
+    }
+
+    private static final class Key {
+
+        private final String sql;
+
+        @Nullable
+        private final String schema;
+
+        private final Object[] args;
+
+        // the hints that may change the rows of a query, or whether it completes in time
+        private final boolean distributedJoins;
+
+        private final boolean collocated;
+
+        private final boolean enforceJoinOrder;
+
+        private final boolean replicatedOnly;
+
+        private final boolean lazy;
+
+        private final boolean local;
+
+        private final int timeout;
+
+        @Nullable
+        private final int[] partitions;
+
+        private final int hash;
+
+        @SuppressWarnings("deprecation")
+        private Key(SqlFieldsQuery query, boolean copyArgs) {
+            Object[] args = query.getArgs() != null ? query.getArgs() : new Object[0];
+
+            this.sql = query.getSql();
+            this.schema = query.getSchema();
+            this.args = copyArgs ? args.clone() : args;
+            this.distributedJoins = query.isDistributedJoins();
+            this.collocated = query.isCollocated();
+            this.enforceJoinOrder = query.isEnforceJoinOrder();
+            this.replicatedOnly = query.isReplicatedOnly();
+            this.lazy = query.isLazy();
+            this.local = query.isLocal();
+            this.timeout = query.getTimeout();
+            this.partitions = query.getPartitions();
+            this.hash = 31 * Objects.hash(this.sql, this.schema) + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return this.hash == that.hash && this.sql.equals(that.sql) && Objects.equals(this.schema, that.schema) && Arrays.deepEquals(this.args, that.args)
+                    && this.distributedJoins == that.distributedJoins && this.collocated == that.collocated && this.enforceJoinOrder == that.enforceJoinOrder
+                    && this.replicatedOnly == that.replicatedOnly && this.lazy == that.lazy && this.local == that.local && this.timeout == that.timeout
+                    && Arrays.equals(this.partitions, that.partitions);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Set<String> tables;
+
+        private final IgniteRowMetadata rowMetadata;
+
+        private final List<IgniteRow> rows;
+
+        private final long created;
+
+        private Entry(Set<String> tables, IgniteRowMetadata rowMetadata, List<IgniteRow> rows, long created) {
+            this.tables = tables;
+            this.rowMetadata = rowMetadata;
+            this.rows = rows;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.apache.ignite.r2dbc;
+
+import java.util.Objects;
+
+/**
+ * A row of a table as it was changed, emitted by
+ * {@link IgniteConnection#changes(String, org.apache.ignite.cache.CacheEntryEventSerializableFilter, boolean)}.
+ */
+public final class RowChange {
+
+    private final Type type;
+
+    private final IgniteRow row;
+
+    RowChange(Type type, IgniteRow row) {
+        this.type = Objects.requireNonNull(type, "type must not be null");
+        this.row = Objects.requireNonNull(row, "row must not be null");
+    }
+
+    /**
+     * Returns how the row changed.
+     *
+     * @return the change type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the row after the change. The row of a {@link Type#REMOVED} change holds the values it had before it
+     * was removed, as far as the cluster still knows them, and its key columns otherwise.
+     *
+     * @return the row, with the columns of {@code SELECT *} on the table
+     */
+    public IgniteRow getRow() {
+        return this.row;
+    }
+
+    @Override
+    public String toString() {
+        return "RowChange{" +
+                "type=" + this.type +
+                ", row=" + this.row +
+                '}';
+    }
+
+    /**
+     * The ways a row changes.
+     */
+    public enum Type {
+
+        /**
+         * The row existed when the stream started, emitted only when a snapshot is requested.
+         */
+        INITIAL,
+
+        /**
+         * The row was inserted.
+         */
+        CREATED,
+
+        /**
+         * The row was updated.
+         */
+        UPDATED,
+
+        /**
+         * The row was removed or expired.
+         */
+        REMOVED
+    }
+}
@@ -0,0 +1,139 @@
+package org.apache.ignite.r2dbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits SQL text into tokens. String literals, quoted identifiers and comments are recognized, so their contents are
+ * never mistaken for keywords, placeholders or separators.
+ */
+final class SqlTokenizer {
+
+    private SqlTokenizer() {
+    }
+
+    static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'' || c == '"') {
+                int end = quoteEnd(sql, i, c);
+                tokens.add(new Token(c == '\'' ? TokenType.LITERAL : TokenType.QUOTED_IDENTIFIER, sql, i, end));
+                i = end;
+            } else if ((c == '?' || c == '$') && (c == '?' || i + 1 < length && Character.isDigit(sql.charAt(i + 1)))) {
+                int end = i + 1;
+                while (end < length && Character.isDigit(sql.charAt(end))) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.PARAMETER, sql, i, end));
+                i = end;
+            } else if (Character.isDigit(c)) {
+                int end = i + 1;
+                while (end < length && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.NUMBER, sql, i, end));
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < length && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_' || sql.charAt(end) == '$')) {
+                    end++;
+                }
+                tokens.add(new Token(TokenType.WORD, sql, i, end));
+                i = end;
+            } else {
+                tokens.add(new Token(TokenType.SYMBOL, sql, i, i + 1));
+                i++;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @return the index after the closing quote, a doubled quote is an escaped quote
+     */
+    private static int quoteEnd(String sql, int start, char quote) {
+        int i = start + 1;
+
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+
+        return sql.length();
+    }
+
+    enum TokenType {
+        WORD, QUOTED_IDENTIFIER, LITERAL, NUMBER, PARAMETER, SYMBOL
+    }
+
+    static final class Token {
+
+        private final TokenType type;
+
+        private final String text;
+
+        private final int start;
+
+        private Token(TokenType type, String sql, int start, int end) {
+            this.type = type;
+            this.text = sql.substring(start, end);
+            this.start = start;
+        }
+
+        TokenType getType() {
+            return this.type;
+        }
+
+        String getText() {
+            return this.text;
+        }
+
+        int getStart() {
+            return this.start;
+        }
+
+        boolean isWord(String word) {
+            return this.type == TokenType.WORD && this.text.equalsIgnoreCase(word);
+        }
+
+        boolean isSymbol(char symbol) {
+            return this.type == TokenType.SYMBOL && this.text.charAt(0) == symbol;
+        }
+
+        /**
+         * @return the identifier as the SQL engine stores it: unquoted identifiers in upper case
+         */
+        String getIdentifier() {
+            if (this.type == TokenType.QUOTED_IDENTIFIER) {
+                int end = this.text.length() > 1 && this.text.endsWith("\"") ? this.text.length() - 1 : this.text.length();
+                return this.text.substring(1, end).replace("\"\"", "\"");
+            }
+            return this.text.toUpperCase();
+        }
+
+        @Override
+        public String toString() {
+            return this.text;
+        }
+    }
+}
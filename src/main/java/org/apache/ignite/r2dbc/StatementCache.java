@@ -0,0 +1,162 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of {@link ParsedStatement}s keyed by SQL text, along with the {@link IgniteRowMetadata} of the rows
+ * each statement returned last. The least recently used entry is evicted once the cache is full.
+ */
+public final class StatementCache {
+
+    private final int maxSize;
+
+    private final Map<String, ParsedStatement> statements;
+
+    private final Map<String, IgniteRowMetadata> rowMetadata;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    StatementCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be greater or equal to zero");
+        }
+
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, ParsedStatement>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    StatementCache.this.evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+        this.rowMetadata = new LinkedHashMap<String, IgniteRowMetadata>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IgniteRowMetadata> eldest) {
+                return size() > StatementCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the parsed form of {@code sql}, parsing it on a cache miss.
+     *
+     * @param sql the SQL text
+     * @return the {@link ParsedStatement}
+     */
+    ParsedStatement get(String sql) {
+        Objects.requireNonNull(sql, "sql must not be null");
+
+        synchronized (this.statements) {
+            ParsedStatement statement = this.statements.get(sql);
+
+            if (statement != null) {
+                this.hits.increment();
+                return statement;
+            }
+        }
+
+        this.misses.increment();
+
+        // parse outside of the lock, a concurrent miss for the same SQL just parses twice
+        ParsedStatement statement = ParsedStatement.parse(sql);
+
+        if (this.maxSize > 0) {
+            synchronized (this.statements) {
+                this.statements.put(sql, statement);
+            }
+        }
+
+        return statement;
+    }
+
+    /**
+     * Returns the row metadata of {@code cursor}, reusing the metadata of the last cursor of {@code sql} if its fields
+     * are the same.
+     *
+     * @param sql    the SQL text of a single statement
+     * @param cursor the cursor opened for {@code sql}
+     * @return the {@link IgniteRowMetadata}
+     */
+    IgniteRowMetadata getRowMetadata(String sql, FieldsQueryCursor<List<?>> cursor) {
+        Objects.requireNonNull(sql, "sql must not be null");
+        Objects.requireNonNull(cursor, "cursor must not be null");
+
+        IgniteRowMetadata metadata;
+
+        synchronized (this.rowMetadata) {
+            metadata = this.rowMetadata.get(sql);
+        }
+
+        // the fields change when a table behind the statement is altered
+        if (metadata != null && metadata.matches(cursor)) {
+            return metadata;
+        }
+
+        metadata = IgniteRowMetadata.toRowMetadata(cursor);
+
+        if (this.maxSize > 0) {
+            synchronized (this.rowMetadata) {
+                this.rowMetadata.put(sql, metadata);
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to parse the SQL text
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of entries evicted to stay within the maximum size
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of cached statements
+     */
+    public int size() {
+        synchronized (this.statements) {
+            return this.statements.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCache{" +
+                "maxSize=" + this.maxSize +
+                ", size=" + size() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", evictions=" + getEvictions() +
+                '}';
+    }
+}
@@ -0,0 +1,340 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicSequence;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.IgniteState;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.configuration.AtomicConfiguration;
+import org.apache.ignite.internal.GridKernalContext;
+import org.apache.ignite.internal.IgniteEx;
+import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
+import org.apache.ignite.internal.processors.cache.query.SqlFieldsQueryEx;
+import org.apache.ignite.internal.processors.query.GridQueryCancel;
+import org.apache.ignite.internal.processors.query.GridQueryTypeDescriptor;
+import org.apache.ignite.internal.processors.query.SqlClientContext;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
+import org.jetbrains.annotations.Nullable;
+
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.EventType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link IgniteTransport} running on a thick {@link Ignite} node that is a member of the cluster topology.
+ */
+final class ThickTransport implements IgniteTransport {
+
+    private final Ignite ignite;
+
+    private final boolean closeIgnite;
+
+    private final GridKernalContext context;
+
+    private final PartitionResolver partitionResolver;
+
+    private final Map<String, IgniteAtomicSequence> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * @param closeIgnite whether {@link #close()} stops the {@code ignite} node
+     */
+    ThickTransport(Ignite ignite, boolean closeIgnite) {
+        this(ignite, closeIgnite, new PartitionResolver(ignite));
+    }
+
+    /**
+     * @param closeIgnite       whether {@link #close()} stops the {@code ignite} node
+     * @param partitionResolver the resolver, shared by the transports of a connection factory
+     */
+    ThickTransport(Ignite ignite, boolean closeIgnite, PartitionResolver partitionResolver) {
+        this.ignite = Objects.requireNonNull(ignite, "ignite must not be null");
+        this.closeIgnite = closeIgnite;
+        this.partitionResolver = Objects.requireNonNull(partitionResolver, "partitionResolver must not be null");
+
+        // queries go straight to the query processor, so they neither depend on nor look up any cache
+        this.context = ((IgniteEx) ignite).context();
+    }
+
+    Ignite getIgnite() {
+        return this.ignite;
+    }
+
+    @Override
+    public FieldsQueryCursor<List<?>> query(SqlFieldsQuery query) {
+        return this.context.query().querySqlFields(query, false);
+    }
+
+    /**
+     * Cancelling stops the map and reduce phases of the query on every node it runs on.
+     */
+    @Override
+    public FieldsQueryCursor<List<?>> query(SqlFieldsQuery query, QueryCancellation cancellation) {
+        GridQueryCancel cancel = new GridQueryCancel();
+
+        cancellation.onCancel(cancel::cancel);
+
+        return this.context.query().querySqlFields(null, query, null, false, true, cancel).get(0);
+    }
+
+    /**
+     * Sends all argument sets with a single batched query, so the statement is parsed and planned once.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public long[] updateBatch(SqlFieldsQuery query, List<Object[]> batchArgs) {
+        SqlFieldsQueryEx batch = new SqlFieldsQueryEx(query.getSql(), false);
+
+        batch.setSchema(query.getSchema());
+        batch.setPageSize(query.getPageSize());
+        batch.setLazy(query.isLazy());
+        batch.setCollocated(query.isCollocated());
+        batch.setReplicatedOnly(query.isReplicatedOnly());
+        batch.setDistributedJoins(query.isDistributedJoins());
+        batch.setEnforceJoinOrder(query.isEnforceJoinOrder());
+        if (query.getTimeout() >= 0) {
+            batch.setTimeout(query.getTimeout(), TimeUnit.MILLISECONDS);
+        }
+        batchArgs.forEach(batch::addBatchedArgs);
+
+        List<FieldsQueryCursor<List<?>>> cursors = querySqlFields(batch);
+
+        long[] counts = new long[batchArgs.size()];
+
+        for (int i = 0; i < cursors.size(); i++) {
+            try (FieldsQueryCursor<List<?>> cursor = cursors.get(i)) {
+                counts[i] = (Long) cursor.getAll().get(0).get(0);
+            }
+        }
+
+        return counts;
+    }
+
+    @Override
+    public boolean isUpdateBatched() {
+        return true;
+    }
+
+    /**
+     * Streams rows through the data streamers of a {@link SqlClientContext}, the same way the JDBC driver does with
+     * {@code SET STREAMING ON}. Ignite counts every row handed to a streamer as updated, whether or not its key existed.
+     */
+    @Override
+    public Ingest openIngest(String schema, int perNodeBufferSize, int perNodeParallelOperations, long flushFrequency) {
+        GridKernalContext ctx = this.context;
+
+        SqlClientContext clientContext = new SqlClientContext(ctx, null, false, false, false, false, false, false, null, null);
+        clientContext.enableStreaming(false, flushFrequency, perNodeBufferSize, perNodeParallelOperations, false);
+
+        return new Ingest() {
+
+            @Override
+            public long load(String sql, List<Object[]> rows) {
+                long count = 0;
+
+                for (Long updated : ctx.query().streamBatchedUpdateQuery(schema, clientContext, sql, rows)) {
+                    count += updated;
+                }
+
+                return count;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    clientContext.close();
+                } catch (Exception e) {
+                    throw new IgniteException("Failed to close data streamers", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Runs all queries with a single multi-statement query.
+     */
+    @Override
+    public List<FieldsQueryCursor<List<?>>> queryAll(List<SqlFieldsQuery> queries) {
+        if (queries.size() == 1) {
+            return Collections.singletonList(query(queries.get(0)));
+        }
+
+        StringJoiner sql = new StringJoiner(";");
+        queries.forEach(query -> sql.add(query.getSql()));
+
+        return querySqlFields(new SqlFieldsQuery(queries.get(0)).setSql(sql.toString()));
+    }
+
+    @Override
+    public boolean isQuery(FieldsQueryCursor<List<?>> cursor, SqlFieldsQuery query) {
+        return ((QueryCursorImpl<List<?>>) cursor).isQuery();
+    }
+
+    @Override
+    public int partition(String schema, KeyPredicate predicate, Object value) {
+        return this.partitionResolver.partition(schema, predicate, value);
+    }
+
+    @Override
+    public int partitions(String schema, String table) {
+        return this.partitionResolver.partitions(schema, table);
+    }
+
+    /**
+     * Values come from a block reserved by this node, the cluster is only asked for a new block once it is used up.
+     */
+    @Override
+    public long nextValue(String name, int reserveSize) {
+        IgniteAtomicSequence sequence = this.sequences.get(name);
+
+        if (sequence == null) {
+            sequence = this.ignite.atomicSequence(name, new AtomicConfiguration().setAtomicSequenceReserveSize(reserveSize), 0, true);
+            this.sequences.put(name, sequence);
+        }
+
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Registers a continuous query on the cache behind the table. The watch outlives this transport, it is only ended
+     * by closing it.
+     */
+    @Nullable
+    @Override
+    public AutoCloseable watch(String schema, String table, Runnable listener) {
+        String cacheName = this.partitionResolver.cacheName(schema, table);
+
+        if (cacheName == null) {
+            return null;
+        }
+
+        ContinuousQuery<Object, Object> query = new ContinuousQuery<>();
+        query.setLocalListener(events -> listener.run());
+
+        return this.ignite.cache(cacheName).withKeepBinary().query(query);
+    }
+
+    /**
+     * Registers a continuous query on the cache behind the table and reads the columns from the binary keys and values
+     * of its events.
+     */
+    @Override
+    public AutoCloseable listen(String schema, String table, List<String> columns, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter,
+                                BiConsumer<RowChange.Type, List<Object>> listener) {
+        String cacheName = this.partitionResolver.cacheName(schema, table);
+        GridQueryTypeDescriptor rowType = this.partitionResolver.type(schema, table);
+
+        if (cacheName == null || rowType == null) {
+            throw new IllegalArgumentException(String.format("Table %s.%s does not exist", schema, table));
+        }
+
+        ContinuousQuery<Object, Object> query = new ContinuousQuery<>();
+
+        query.setLocalListener(events -> {
+            for (CacheEntryEvent<?, ?> event : events) {
+                // removed rows carry their last value as the old value only
+                Object value = event.getValue() != null ? event.getValue() : event.getOldValue();
+                List<Object> values = new ArrayList<>(columns.size());
+
+                for (String column : columns) {
+                    values.add(value(rowType, column, event.getKey(), value));
+                }
+
+                listener.accept(toChangeType(event.getEventType()), values);
+            }
+        });
+
+        if (filter != null) {
+            query.setRemoteFilterFactory(new FactoryBuilder.SingletonFactory<>(filter));
+        }
+
+        return this.ignite.cache(cacheName).withKeepBinary().query(query);
+    }
+
+    @Override
+    public void txStart(TransactionConcurrency concurrency, TransactionIsolation isolation) {
+        this.ignite.transactions().txStart(concurrency, isolation);
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return this.ignite.transactions().tx() != null;
+    }
+
+    @Override
+    public void commit() {
+        this.ignite.transactions().tx().commit();
+    }
+
+    @Override
+    public void rollback() {
+        this.ignite.transactions().tx().rollback();
+    }
+
+    @Override
+    public boolean isAlive() {
+        return Ignition.state(this.ignite.name()) == IgniteState.STARTED;
+    }
+
+    @Override
+    public boolean isClusterAvailable() {
+        return this.ignite.cluster().state().active() && !this.ignite.cluster().forServers().nodes().isEmpty();
+    }
+
+    @Override
+    public void close() {
+        if (this.closeIgnite) {
+            this.ignite.close();
+        }
+    }
+
+    private List<FieldsQueryCursor<List<?>>> querySqlFields(SqlFieldsQuery query) {
+        return this.context.query().querySqlFields(query, false, false);
+    }
+
+    @Override
+    public String toString() {
+        return "ThickTransport{" +
+                "ignite=" + this.ignite.name() +
+                '}';
+    }
+
+    @Nullable
+    private static Object value(GridQueryTypeDescriptor type, String column, Object key, @Nullable Object value) {
+        // a primary key of a single column is the cache key itself rather than a field of it
+        if (column.equals(type.keyFieldAlias()) || column.equals(type.keyFieldName())) {
+            return key;
+        }
+
+        try {
+            return type.value(column, key, value);
+        } catch (IgniteCheckedException e) {
+            throw new IgniteException(e);
+        }
+    }
+
+    private static RowChange.Type toChangeType(EventType eventType) {
+        switch (eventType) {
+            case CREATED:
+                return RowChange.Type.CREATED;
+            case UPDATED:
+                return RowChange.Type.UPDATED;
+            default:
+                return RowChange.Type.REMOVED;
+        }
+    }
+}
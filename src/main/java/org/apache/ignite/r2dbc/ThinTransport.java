@@ -0,0 +1,272 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.CacheEntryEventSerializableFilter;
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link IgniteTransport} using the thin client protocol, so the application never joins the cluster topology.
+ * <p>
+ * Transactions are not supported: thin client transactions only cover key-value operations and SQL statements would run
+ * outside of them.
+ */
+final class ThinTransport implements IgniteTransport {
+
+    private static final String FEATURE_NOT_SUPPORTED_SQL_STATE = "0A000";
+
+    private final IgniteClient client;
+
+    private final boolean closeClient;
+
+    private volatile boolean closed;
+
+    /**
+     * @param closeClient whether {@link #close()} closes the {@code client}
+     */
+    ThinTransport(IgniteClient client, boolean closeClient) {
+        this.client = Objects.requireNonNull(client, "client must not be null");
+        this.closeClient = closeClient;
+    }
+
+    /**
+     * Thin client cursors only run the query and learn the field names when the first page is requested, so the first
+     * page is fetched here to surface errors and metadata together with the cursor.
+     */
+    @Override
+    public FieldsQueryCursor<List<?>> query(SqlFieldsQuery query) {
+        FieldsQueryCursor<List<?>> cursor = this.client.query(query);
+
+        try {
+            Iterator<List<?>> iterator = cursor.iterator();
+            iterator.hasNext();
+
+            return new FetchedCursor(cursor, iterator);
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The thin protocol cannot stop a query while it runs, cancellation only closes the cursor once the first page
+     * arrived.
+     */
+    @Override
+    public FieldsQueryCursor<List<?>> query(SqlFieldsQuery query, QueryCancellation cancellation) {
+        return query(query);
+    }
+
+    /**
+     * The thin protocol has no batched arguments, so the statement is executed once per argument set.
+     */
+    @Override
+    public long[] updateBatch(SqlFieldsQuery query, List<Object[]> batchArgs) {
+        long[] counts = new long[batchArgs.size()];
+
+        for (int i = 0; i < counts.length; i++) {
+            SqlFieldsQuery execution = new SqlFieldsQuery(query).setArgs(batchArgs.get(i));
+
+            try (FieldsQueryCursor<List<?>> cursor = this.client.query(execution)) {
+                counts[i] = (Long) cursor.getAll().get(0).get(0);
+            }
+        }
+
+        return counts;
+    }
+
+    @Override
+    public boolean isUpdateBatched() {
+        return false;
+    }
+
+    /**
+     * The thin protocol has no data streamers, so rows are inserted with batched executions instead.
+     */
+    @Override
+    public Ingest openIngest(String schema, int perNodeBufferSize, int perNodeParallelOperations, long flushFrequency) {
+        return new Ingest() {
+
+            @Override
+            public long load(String sql, List<Object[]> rows) {
+                long count = 0;
+
+                for (long updated : updateBatch(new SqlFieldsQuery(sql).setSchema(schema), rows)) {
+                    count += updated;
+                }
+
+                return count;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public List<FieldsQueryCursor<List<?>>> queryAll(List<SqlFieldsQuery> queries) {
+        List<FieldsQueryCursor<List<?>>> cursors = new ArrayList<>(queries.size());
+
+        try {
+            for (SqlFieldsQuery query : queries) {
+                cursors.add(query(query));
+            }
+        } catch (RuntimeException e) {
+            cursors.forEach(FieldsQueryCursor::close);
+            throw e;
+        }
+
+        return cursors;
+    }
+
+    /**
+     * The thin protocol does not tell whether a cursor holds rows or an update count, so this is decided from the
+     * statement keyword.
+     */
+    @Override
+    public boolean isQuery(FieldsQueryCursor<List<?>> cursor, SqlFieldsQuery query) {
+        return ParsedStatement.isQuery(query.getSql());
+    }
+
+    /**
+     * Partitions are left to the server, the thin client has no affinity metadata for SQL tables.
+     */
+    @Override
+    public int partition(String schema, KeyPredicate predicate, Object value) {
+        return -1;
+    }
+
+    @Override
+    public int partitions(String schema, String table) {
+        return -1;
+    }
+
+    /**
+     * The thin client has no atomic sequences.
+     */
+    @Override
+    public long nextValue(String name, int reserveSize) {
+        throw new UnsupportedOperationException("Generated values require the thick transport, the thin client has no atomic sequences");
+    }
+
+    /**
+     * The thin client has no continuous queries.
+     */
+    @Nullable
+    @Override
+    public AutoCloseable watch(String schema, String table, Runnable listener) {
+        return null;
+    }
+
+    @Override
+    public AutoCloseable listen(String schema, String table, List<String> columns, @Nullable CacheEntryEventSerializableFilter<Object, Object> filter,
+                                BiConsumer<RowChange.Type, List<Object>> listener) {
+        throw new UnsupportedOperationException("Change streams require the thick transport, the thin client has no continuous queries");
+    }
+
+    @Override
+    public void txStart(TransactionConcurrency concurrency, TransactionIsolation isolation) {
+        throw new IgniteExceptionFactory.IgniteR2dbcNonTransientException("Transactions require the thick transport, "
+                + "thin client transactions do not cover SQL statements", FEATURE_NOT_SUPPORTED_SQL_STATE, 0, null);
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return false;
+    }
+
+    @Override
+    public void commit() {
+        throw new IllegalStateException("no transaction in progress");
+    }
+
+    @Override
+    public void rollback() {
+        throw new IllegalStateException("no transaction in progress");
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !this.closed;
+    }
+
+    @Override
+    public boolean isClusterAvailable() {
+        return this.client.cluster().state().active();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+
+        if (this.closeClient) {
+            try {
+                this.client.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close thin client", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ThinTransport{" +
+                "client=" + this.client +
+                '}';
+    }
+
+    private static final class FetchedCursor implements FieldsQueryCursor<List<?>> {
+
+        private final FieldsQueryCursor<List<?>> cursor;
+
+        private final Iterator<List<?>> iterator;
+
+        private FetchedCursor(FieldsQueryCursor<List<?>> cursor, Iterator<List<?>> iterator) {
+            this.cursor = cursor;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public String getFieldName(int idx) {
+            return this.cursor.getFieldName(idx);
+        }
+
+        @Override
+        public int getColumnsCount() {
+            return this.cursor.getColumnsCount();
+        }
+
+        @Override
+        public List<List<?>> getAll() {
+            List<List<?>> all = new ArrayList<>();
+
+            try {
+                this.iterator.forEachRemaining(all::add);
+            } finally {
+                close();
+            }
+
+            return all;
+        }
+
+        @Override
+        public void close() {
+            this.cursor.close();
+        }
+
+        @Override
+        public Iterator<List<?>> iterator() {
+            return this.iterator;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.R2dbcTransientResourceException;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single threaded executors that connections are pinned to while a transaction is open.
+ * <p>
+ * Ignite binds a transaction to the thread that started it, but the execution scheduler may run several connections
+ * on one thread. A lane belongs to a single connection until its transaction ends, so transactions of different
+ * connections never share a thread. Idle lanes are reused and their threads stop after a minute without work.
+ */
+final class TransactionLanes {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final int threadCap;
+
+    private final Semaphore permits;
+
+    private final ConcurrentLinkedDeque<ExecutorService> idleLanes = new ConcurrentLinkedDeque<>();
+
+    TransactionLanes(int threadCap) {
+        if (threadCap <= 0) {
+            throw new IllegalArgumentException("threadCap must be greater than zero");
+        }
+
+        this.threadCap = threadCap;
+        this.permits = new Semaphore(threadCap);
+    }
+
+    /**
+     * Takes a lane for the exclusive use of one transaction.
+     *
+     * @return the lane
+     * @throws R2dbcTransientResourceException if all lanes are in use
+     */
+    ExecutorService acquire() {
+        if (!this.permits.tryAcquire()) {
+            throw new R2dbcTransientResourceException(String.format("All %d transaction threads are in use", this.threadCap));
+        }
+
+        ExecutorService lane = this.idleLanes.pollFirst();
+
+        return lane != null ? lane : newLane();
+    }
+
+    /**
+     * Returns a lane whose transaction has ended.
+     *
+     * @param lane the lane
+     */
+    void release(ExecutorService lane) {
+        this.idleLanes.offerFirst(lane);
+        this.permits.release();
+    }
+
+    /**
+     * Returns a lane that may still have a transaction bound to its thread, so it is shut down instead of reused.
+     *
+     * @param lane the lane
+     */
+    void discard(ExecutorService lane) {
+        lane.shutdown();
+        this.permits.release();
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionLanes{" +
+                "threadCap=" + this.threadCap +
+                ", available=" + this.permits.availablePermits() +
+                '}';
+    }
+
+    private static ExecutorService newLane() {
+        ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "ignite-r2dbc-tx-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        lane.allowCoreThreadTimeOut(true);
+
+        return lane;
+    }
+}
@@ -0,0 +1,56 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.R2dbcRollbackException;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Retry strategies for transactional units of work, see
+ * {@link IgniteConnection#inTransaction(java.util.function.Function, Retry)}.
+ */
+public final class TransactionRetry {
+
+    /**
+     * Default fraction of the backoff that is randomized.
+     */
+    public static final double DEFAULT_JITTER = 0.5;
+
+    private TransactionRetry() {
+    }
+
+    /**
+     * Returns a strategy retrying transactions that were rolled back because of a conflict: optimistic or serialization
+     * failures. Timeouts and exhausted resources are not retried, as a replay would most likely run into them again.
+     * Attempts are spaced with an exponential, jittered backoff so that conflicting transactions do not collide again.
+     *
+     * @param maxAttempts the maximum number of retries
+     * @param minBackoff  the backoff before the first retry
+     * @return the {@link Retry} strategy
+     * @throws NullPointerException     if {@code minBackoff} is {@code null}
+     * @throws IllegalArgumentException if {@code maxAttempts} is negative
+     */
+    public static RetryBackoffSpec onConflict(long maxAttempts, Duration minBackoff) {
+        Objects.requireNonNull(minBackoff, "minBackoff must not be null");
+
+        if (maxAttempts < 0) {
+            throw new IllegalArgumentException("maxAttempts must be greater or equal to zero");
+        }
+
+        return Retry.backoff(maxAttempts, minBackoff)
+                .jitter(DEFAULT_JITTER)
+                .filter(TransactionRetry::isConflict);
+    }
+
+    /**
+     * Checks whether {@code throwable} reports a transaction that may succeed when it is replayed.
+     *
+     * @param throwable the failure
+     * @return {@code true} for {@link R2dbcRollbackException}
+     */
+    public static boolean isConflict(Throwable throwable) {
+        return throwable instanceof R2dbcRollbackException;
+    }
+}
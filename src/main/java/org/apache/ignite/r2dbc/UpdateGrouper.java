@@ -0,0 +1,298 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Gathers single row updates of concurrent callers into batched executions. Updates of the same SQL text with the same
+ * schema and hints join an open group, which runs once it holds a maximum number of rows, or once a window has passed
+ * since its first row. Each caller gets the update count of its own row. The rows a failed batch reports as failed or
+ * not run are run again on their own, so each caller gets its own failure. When a batch fails without update counts,
+ * for example on a timeout, it is unknown which rows were written, so every row fails with the error of the batch.
+ */
+final class UpdateGrouper {
+
+    private final int maxRows;
+
+    private final Duration window;
+
+    private final QueryMetrics queryMetrics;
+
+    private final Map<Key, Group> groups = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxRows      the maximum number of rows per group, {@code 0} disables grouping
+     * @param window       how long a group waits for more rows after its first row
+     * @param queryMetrics the metrics counting the grouped updates
+     */
+    UpdateGrouper(int maxRows, Duration window, QueryMetrics queryMetrics) {
+        if (maxRows < 0) {
+            throw new IllegalArgumentException("maxRows must be greater or equal to zero");
+        }
+
+        this.maxRows = maxRows;
+        this.window = Objects.requireNonNull(window, "window must not be null");
+        this.queryMetrics = Objects.requireNonNull(queryMetrics, "queryMetrics must not be null");
+    }
+
+    boolean isEnabled() {
+        return this.maxRows > 0;
+    }
+
+    /**
+     * Adds the row of {@code query} to the open group of its SQL text, opening one if there is none.
+     *
+     * @param query    the update, with the arguments of its row
+     * @param executor runs the SQL text of a query once per row of arguments with a single batched call, returning the
+     *                 update count of each row
+     * @return a {@link Mono} emitting the update count of the row
+     */
+    Mono<Long> update(SqlFieldsQuery query, BiFunction<SqlFieldsQuery, List<Object[]>, Mono<long[]>> executor) {
+        Objects.requireNonNull(query, "query must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+
+        return Mono.create(sink -> {
+            Key key = new Key(query);
+            // the arguments are the array of the statement binding, which may be bound again before the group runs
+            Row row = new Row(query.getArgs() != null ? query.getArgs().clone() : new Object[0], sink);
+
+            sink.onCancel(() -> row.cancelled = true);
+
+            for (;;) {
+                Group group = this.groups.computeIfAbsent(key, k -> new Group(k, query, executor));
+                int size = group.add(row);
+
+                // the group ran meanwhile
+                if (size < 0) {
+                    continue;
+                }
+
+                if (size >= this.maxRows) {
+                    run(group);
+                } else if (size == 1) {
+                    group.timer = Schedulers.parallel().schedule(() -> run(group), this.window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+
+                return;
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateGrouper{" +
+                "maxRows=" + this.maxRows +
+                ", window=" + this.window +
+                ", groups=" + this.groups.size() +
+                '}';
+    }
+
+    private void run(Group group) {
+        List<Row> rows = group.close();
+
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+
+        if (rows.size() > 1) {
+            this.queryMetrics.onGrouped(rows.size());
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(rows.size());
+
+        for (Row row : rows) {
+            batchArgs.add(row.args);
+        }
+
+        group.executor.apply(group.query, batchArgs).subscribe(counts -> {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).sink.success(counts[i]);
+            }
+        }, e -> {
+            if (rows.size() == 1) {
+                rows.get(0).sink.error(e);
+                return;
+            }
+
+            int[] counts = counts(e);
+
+            // running rows again that may have been written would write them twice
+            if (counts == null) {
+                rows.forEach(row -> row.sink.error(e));
+                return;
+            }
+
+            List<Row> failed = new ArrayList<>(rows.size());
+
+            for (int i = 0; i < rows.size(); i++) {
+                // not run by a batch that stopped at the failure
+                if (i >= counts.length || counts[i] == Statement.EXECUTE_FAILED) {
+                    failed.add(rows.get(i));
+                } else if (counts[i] >= 0) {
+                    rows.get(i).sink.success((long) counts[i]);
+                } else {
+                    // written, but without a count to report
+                    rows.get(i).sink.error(e);
+                }
+            }
+
+            Flux.fromIterable(failed)
+                    .concatMap(row -> group.executor.apply(group.query, Collections.singletonList(row.args))
+                            .doOnNext(single -> row.sink.success(single[0]))
+                            .doOnError(row.sink::error)
+                            .onErrorResume(ignored -> Mono.empty()))
+                    .subscribe();
+        });
+    }
+
+    @Nullable
+    private static int[] counts(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BatchUpdateException) {
+                return ((BatchUpdateException) cause).getUpdateCounts();
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+
+        return null;
+    }
+
+    private static final class Row {
+
+        private final Object[] args;
+
+        private final MonoSink<Long> sink;
+
+        private volatile boolean cancelled;
+
+        private Row(Object[] args, MonoSink<Long> sink) {
+            this.args = args;
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * The rows waiting for the same batched execution.
+     */
+    private final class Group {
+
+        private final Key key;
+
+        // the first update of the group, whose SQL text and hints the batch runs with
+        private final SqlFieldsQuery query;
+
+        private final BiFunction<SqlFieldsQuery, List<Object[]>, Mono<long[]>> executor;
+
+        private final List<Row> rows = new ArrayList<>();
+
+        private boolean closed;
+
+        @Nullable
+        private volatile Disposable timer;
+
+        private Group(Key key, SqlFieldsQuery query, BiFunction<SqlFieldsQuery, List<Object[]>, Mono<long[]>> executor) {
+            this.key = key;
+            this.query = query;
+            this.executor = executor;
+        }
+
+        /**
+         * @return the number of rows of this group, {@code -1} if it ran already
+         */
+        private synchronized int add(Row row) {
+            if (this.closed) {
+                return -1;
+            }
+
+            this.rows.add(row);
+            return this.rows.size();
+        }
+
+        /**
+         * Stops this group from taking rows.
+         *
+         * @return the rows whose callers are still waiting, {@code null} if this group ran already
+         */
+        @Nullable
+        private List<Row> close() {
+            UpdateGrouper.this.groups.remove(this.key, this);
+
+            Disposable timer = this.timer;
+
+            if (timer != null) {
+                timer.dispose();
+            }
+
+            synchronized (this) {
+                if (this.closed) {
+                    return null;
+                }
+
+                this.closed = true;
+            }
+
+            List<Row> rows = new ArrayList<>(this.rows.size());
+
+            // the callers that went away before the batch ran do not want their rows written
+            for (Row row : this.rows) {
+                if (!row.cancelled) {
+                    rows.add(row);
+                }
+            }
+
+            return rows;
+        }
+    }
+
+    private static final class Key {
+
+        private final SqlFieldsQuery query;
+
+        private final int hash;
+
+        private Key(SqlFieldsQuery query) {
+            this.query = query;
+            this.hash = Objects.hash(query.getSql(), query.getSchema());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            SqlFieldsQuery a = this.query;
+            SqlFieldsQuery b = ((Key) o).query;
+            // the settings a batched execution runs with, see IgniteTransport#updateBatch
+            return a.getSql().equals(b.getSql()) && Objects.equals(a.getSchema(), b.getSchema()) && a.isLazy() == b.isLazy()
+                    && a.isCollocated() == b.isCollocated() && a.isDistributedJoins() == b.isDistributedJoins()
+                    && a.isEnforceJoinOrder() == b.isEnforceJoinOrder() && a.getTimeout() == b.getTimeout();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
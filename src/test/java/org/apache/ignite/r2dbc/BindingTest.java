@@ -0,0 +1,27 @@
+package org.apache.ignite.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BindingTest {
+
+    @Test
+    public void bindsParametersInPlace() {
+        Binding binding = new Binding(ParsedStatement.parse("UPDATE test SET name = ?, age = ? WHERE id = ? AND note <> '?'").getParameterCount());
+
+        binding.add(2, 7).add(0, "name");
+        Assertions.assertThrows(IllegalStateException.class, binding::validate);
+
+        binding.add(1, null);
+        binding.validate();
+
+        Assertions.assertArrayEquals(new Object[]{"name", null, 7}, binding.getParameters());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> binding.add(3, 1));
+    }
+
+    @Test
+    public void sizesBindingsByHighestPlaceholder() {
+        Assertions.assertEquals(3, ParsedStatement.parse("SELECT * FROM test WHERE id = $3 OR id = $1").getParameterCount());
+        Assertions.assertEquals(0, ParsedStatement.parse("SELECT '$1' FROM test -- ?").getParameterCount());
+    }
+}
@@ -0,0 +1,50 @@
+package org.apache.ignite.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.List;
+
+public class ColumnBatchTest {
+
+    private final IgniteRowMetadata rowMetadata = new IgniteRowMetadata(Arrays.asList(
+            new IgniteColumnMetadata("ID", 0, -1, -1, Long.class, ResultSetMetaData.columnNoNulls),
+            new IgniteColumnMetadata("AGE", 1, -1, -1, Integer.class, ResultSetMetaData.columnNullable),
+            new IgniteColumnMetadata("SCORE", 2, -1, -1, Double.class, ResultSetMetaData.columnNullable),
+            new IgniteColumnMetadata("NAME", 3, -1, -1, String.class, ResultSetMetaData.columnNullable)));
+
+    @Test
+    public void holdsNumericColumnsAsPrimitives() {
+        ColumnBatch batch = new ColumnBatch(this.rowMetadata, 4);
+
+        batch.add(Arrays.asList(1L, 30, 1.5, "a"));
+        batch.add(Arrays.asList(2L, null, null, null));
+
+        Assertions.assertEquals(2, batch.size());
+        Assertions.assertFalse(batch.isFull());
+        Assertions.assertEquals(2L, batch.getLongs(0)[1]);
+        Assertions.assertEquals(30, batch.getInts(1)[0]);
+        Assertions.assertEquals(1.5, batch.getDoubles(2)[0]);
+        Assertions.assertEquals("a", batch.getObjects(3)[0]);
+        Assertions.assertTrue(batch.isNull(1, 1));
+        Assertions.assertFalse(batch.isNull(1, 0));
+        Assertions.assertEquals(2, batch.getNulls(2).nextSetBit(0) + 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> batch.getObjects(0));
+    }
+
+    @Test
+    public void batchesRowsOfResult() {
+        Flux<IgniteRow> rows = Flux.range(0, 3).map(i -> IgniteRow.toRow(Arrays.asList((long) i, i, (double) i, "n" + i), this.rowMetadata));
+
+        List<ColumnBatch> batches = new IgniteResult(this.rowMetadata, rows, 2, Mono.empty()).batches().collectList().block();
+
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(2, batches.get(0).size());
+        Assertions.assertEquals(1, batches.get(1).size());
+        Assertions.assertEquals(2L, batches.get(1).getLongs(0)[0]);
+    }
+}
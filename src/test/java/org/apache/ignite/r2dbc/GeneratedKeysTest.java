@@ -0,0 +1,38 @@
+package org.apache.ignite.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeneratedKeysTest {
+
+    @Test
+    public void addsGeneratedColumnsAsParameters() {
+        ParsedStatement statement = ParsedStatement.parse("INSERT INTO sales.person (name, age) VALUES (?, 1), (upper(?), ?)");
+        GeneratedKeys keys = GeneratedKeys.of(statement.getFragments().get(0), new String[]{"id"}, statement.getParameterCount());
+
+        Assertions.assertNotNull(keys);
+        Assertions.assertEquals("INSERT INTO sales.person (id, name, age) VALUES (?, ?, 1), (?, upper(?), ?)", keys.getTemplate().getSql());
+        Assertions.assertEquals(2, keys.getValueCount());
+        Assertions.assertEquals("SQL_SALES_PERSON_ID_SEQ", keys.getSequenceName("PUBLIC", 1));
+        Assertions.assertArrayEquals(new Object[]{10L, "a", 11L, "b", 2}, keys.toArgs(new Object[]{"a", "b", 2}, new Object[]{10L, 11L}));
+
+        statement = ParsedStatement.parse("INSERT INTO person (name) VALUES ($1)");
+        keys = GeneratedKeys.of(statement.getFragments().get(0), new String[]{"id", "code"}, statement.getParameterCount());
+
+        Assertions.assertNotNull(keys);
+        Assertions.assertEquals("INSERT INTO person (id, code, name) VALUES ($2, $3, $1)", keys.getTemplate().getSql());
+        Assertions.assertEquals("SQL_PUBLIC_PERSON_CODE_SEQ", keys.getSequenceName("PUBLIC", 1));
+        Assertions.assertArrayEquals(new Object[]{"a", 1L, 2L}, keys.toArgs(new Object[]{"a"}, new Object[]{1L, 2L}));
+    }
+
+    @Test
+    public void rejectsStatementsWithoutValuesList() {
+        Assertions.assertNull(GeneratedKeys.of(ParsedStatement.parse("UPDATE person SET age = 1").getFragments().get(0), new String[]{"id"}, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GeneratedKeys.of(ParsedStatement.parse("INSERT INTO person VALUES (1)").getFragments().get(0), new String[]{"id"}, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GeneratedKeys.of(ParsedStatement.parse("INSERT INTO person (name) SELECT name FROM city").getFragments().get(0), new String[]{"id"}, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GeneratedKeys.of(ParsedStatement.parse("INSERT INTO person (id, name) VALUES (?, ?)").getFragments().get(0), new String[]{"ID"}, 2));
+    }
+}
@@ -0,0 +1,63 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.apache.ignite.configuration.ClientConfiguration;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class IgniteConnectionFactoryProviderTest {
+
+    private final IgniteConnectionFactoryProvider provider = new IgniteConnectionFactoryProvider();
+
+    @Test
+    public void supportsIgniteUrls() {
+        Assertions.assertTrue(this.provider.supports(ConnectionFactoryOptions.parse("r2dbc:ignite://localhost:47500")));
+        Assertions.assertFalse(this.provider.supports(ConnectionFactoryOptions.parse("r2dbc:h2:mem:///test")));
+    }
+
+    @Test
+    public void parsesConfigurationFromUrl() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:ignite://localhost:47500/SALES?pageSize=128&lazy=true&maxIdleConnections=4&maxIdleTime=PT1M&statementCacheSize=16&transactionConcurrency=optimistic&statementTimeout=PT30S&generatedKeyReserveSize=50&resultCacheSize=100&resultCacheTtl=PT5M&changeStreamBufferSize=32&coalescingMaxRows=500&groupedUpdateSize=64&groupedUpdateWindow=PT0.005S");
+
+        IgniteConnectionConfiguration configuration = IgniteConnectionFactoryProvider.toConfiguration(options);
+
+        Assertions.assertEquals("SALES", configuration.getSchema());
+        Assertions.assertEquals(128, configuration.getPageSize());
+        Assertions.assertTrue(configuration.isLazy());
+        Assertions.assertEquals(4, configuration.getMaxIdleConnections());
+        Assertions.assertEquals(Duration.ofMinutes(1), configuration.getMaxIdleTime());
+        Assertions.assertEquals(16, configuration.getStatementCacheSize());
+        Assertions.assertEquals(TransactionConcurrency.OPTIMISTIC, configuration.getTransactionConcurrency());
+        Assertions.assertEquals(Duration.ofSeconds(30), configuration.getStatementTimeout());
+        Assertions.assertEquals(50, configuration.getGeneratedKeyReserveSize());
+        Assertions.assertEquals(100, configuration.getResultCacheSize());
+        Assertions.assertEquals(Duration.ofMinutes(5), configuration.getResultCacheTtl());
+        Assertions.assertEquals(32, configuration.getChangeStreamBufferSize());
+        Assertions.assertEquals(500, configuration.getCoalescingMaxRows());
+        Assertions.assertEquals(64, configuration.getGroupedUpdateSize());
+        Assertions.assertEquals(Duration.ofMillis(5), configuration.getGroupedUpdateWindow());
+    }
+
+    @Test
+    public void acceptsTypedOptions() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, IgniteConnectionFactoryProvider.IGNITE_DRIVER)
+                .option(IgniteConnectionFactoryProvider.PAGE_SIZE, 256)
+                .build();
+
+        Assertions.assertEquals(256, IgniteConnectionFactoryProvider.toConfiguration(options).getPageSize());
+    }
+
+    @Test
+    public void parsesThinClientConfigurationFromUrl() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:ignite://node1:10800?transport=thin&addresses=node2:10800,node3:10801&partitionAwareness=true");
+
+        ClientConfiguration configuration = IgniteConnectionFactoryProvider.toClientConfiguration(options);
+
+        Assertions.assertArrayEquals(new String[]{"node1:10800", "node2:10800", "node3:10801"}, configuration.getAddresses());
+        Assertions.assertTrue(configuration.isPartitionAwarenessEnabled());
+    }
+}
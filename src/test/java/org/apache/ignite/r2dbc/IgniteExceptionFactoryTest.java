@@ -0,0 +1,50 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.R2dbcRollbackException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.query.QueryCancelledException;
+import org.apache.ignite.internal.IgniteVersionUtils;
+import org.apache.ignite.internal.processors.cache.query.IgniteQueryErrorCode;
+import org.apache.ignite.internal.processors.query.IgniteSQLException;
+import org.apache.ignite.internal.processors.query.h2.UpdateResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IgniteExceptionFactoryTest {
+
+    @Test
+    public void convertsConflictsByCode() {
+        RuntimeException conflict = IgniteExceptionFactory.convert(new IgniteSQLException("conflict", IgniteQueryErrorCode.CONCURRENT_UPDATE));
+        RuntimeException serialization = IgniteExceptionFactory.convert(
+                new IgniteSQLException("serialization", IgniteQueryErrorCode.TRANSACTION_SERIALIZATION_ERROR));
+
+        Assertions.assertEquals("40001", ((R2dbcRollbackException) conflict).getSqlState());
+        Assertions.assertEquals("40001", ((R2dbcRollbackException) serialization).getSqlState());
+        Assertions.assertTrue(IgniteExceptionFactory.convert(new IgniteException(new QueryCancelledException())) instanceof R2dbcTimeoutException);
+    }
+
+    @Test
+    public void doesNotTakeMessageOfOtherFailuresForConflict() {
+        R2dbcException exception = (R2dbcException) IgniteExceptionFactory.convert(
+                new IgniteSQLException("Column because they had been modified concurrently not found", IgniteQueryErrorCode.COLUMN_NOT_FOUND));
+
+        Assertions.assertFalse(exception instanceof R2dbcRollbackException);
+        Assertions.assertEquals("42000", exception.getSqlState());
+    }
+
+    /**
+     * Ignite reports DML conflicts without their {@link IgniteQueryErrorCode#CONCURRENT_UPDATE} code, so they are only
+     * told apart by the message. Check the failure Ignite raises again when upgrading it.
+     */
+    @Test
+    public void convertsConflictOfUpdateByMessageOfIgnite2_10() {
+        Assertions.assertEquals("2.10.0", IgniteVersionUtils.VER_STR);
+
+        IgniteSQLException failure = Assertions.assertThrows(IgniteSQLException.class, () -> new UpdateResult(0, new Object[] {1}).throwIfError());
+
+        Assertions.assertEquals(IgniteQueryErrorCode.UNKNOWN, failure.statusCode());
+        Assertions.assertEquals("40001", ((R2dbcRollbackException) IgniteExceptionFactory.convert(failure)).getSqlState());
+    }
+}
@@ -0,0 +1,59 @@
+package org.apache.ignite.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+public class IgniteRowTest {
+
+    private final IgniteRowMetadata metadata = new IgniteRowMetadata(Arrays.asList(
+            new IgniteColumnMetadata("ID", 0, 0, 10, Integer.class, ResultSetMetaData.columnNoNulls),
+            new IgniteColumnMetadata("CREATED", 1, 0, 26, Timestamp.class, ResultSetMetaData.columnNullable)));
+
+    @Test
+    public void convertsToRequestedType() {
+        Timestamp created = Timestamp.valueOf("2021-03-04 05:06:07.123456789");
+        IgniteRow row = IgniteRow.toRow(Arrays.asList(42, created), this.metadata);
+
+        Assertions.assertEquals(Integer.valueOf(42), row.get(0, Integer.class));
+        Assertions.assertEquals(Long.valueOf(42), row.get("id", Long.class));
+        Assertions.assertEquals(Long.valueOf(42), row.get(0, long.class));
+        Assertions.assertEquals(BigDecimal.valueOf(42), row.get(0, BigDecimal.class));
+        Assertions.assertEquals("42", row.get(0, String.class));
+        Assertions.assertEquals(created.toInstant(), row.get(1, Instant.class));
+        Assertions.assertEquals(LocalDateTime.of(2021, 3, 4, 5, 6, 7, 123456789), row.get("CREATED", LocalDateTime.class));
+        Assertions.assertSame(created, row.get(1, Object.class));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> row.get(1, Integer.class));
+        // dropping the time of day is not lossless
+        Assertions.assertThrows(IllegalArgumentException.class, () -> row.get(1, LocalDate.class));
+    }
+
+    @Test
+    public void returnsNullForNullValues() {
+        IgniteRow row = IgniteRow.toRow(Arrays.asList(1, null), this.metadata);
+
+        Assertions.assertNull(row.get(1, Instant.class));
+    }
+
+    @Test
+    public void resolvesColumnNamesIgnoringCase() {
+        IgniteRowMetadata metadata = new IgniteRowMetadata(Arrays.asList(
+                new IgniteColumnMetadata("ID", 0, 0, 10, Integer.class, ResultSetMetaData.columnNoNulls),
+                new IgniteColumnMetadata("Name", 1, 0, 10, String.class, ResultSetMetaData.columnNullable),
+                new IgniteColumnMetadata("NAME", 2, 0, 10, String.class, ResultSetMetaData.columnNullable)));
+
+        Assertions.assertEquals(0, metadata.getColumn("id").getIndex());
+        Assertions.assertEquals(0, metadata.getColumn("id").getIndex());
+        Assertions.assertEquals(2, metadata.getColumn("NAME").getIndex());
+        Assertions.assertEquals(1, metadata.getColumn("name").getIndex());
+        Assertions.assertTrue(metadata.getColumnNames().contains("iD"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> metadata.getColumn("age"));
+    }
+}
@@ -1,24 +1,64 @@
 package org.apache.ignite.r2dbc;
 
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.R2dbcNonTransientException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.ValidationDepth;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteState;
 import org.apache.ignite.Ignition;
 import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.client.IgniteClient;
+import org.apache.ignite.configuration.ClientConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.internal.IgniteEx;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class IntegrationTest {
 
-    @Test
-    public void test() {
-        Ignite igniteServer = Ignition.start();
+    private static Ignite igniteServer;
+
+    private static Ignite client;
 
-        Ignite client = Ignition.start(new IgniteConfiguration().setIgniteInstanceName("client").setClientMode(true));
+    private static IgniteClient thinClient;
+
+    @BeforeAll
+    public static void startNodes() {
+        igniteServer = Ignition.start();
+        client = Ignition.start(new IgniteConfiguration().setIgniteInstanceName("client").setClientMode(true));
+        thinClient = Ignition.startClient(new ClientConfiguration().setAddresses("127.0.0.1:10800"));
+    }
 
+    @AfterAll
+    public static void stopNodes() throws Exception {
+        thinClient.close();
+        client.close();
+        igniteServer.close();
+    }
+
+    @Test
+    public void test() {
         // hack!
         IgniteCache<Object, Object> test = client.getOrCreateCache("test");
 
@@ -67,4 +107,433 @@ public class IntegrationTest {
         Assertions.assertEquals(1, afterRollback.size());
     }
 
+    @Test
+    public void runsBindingsAsOneBatch() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+
+        connection.createStatement("CREATE TABLE Region (id int primary key, name varchar) WITH \"TEMPLATE=REPLICATED\"").execute().collectList().block();
+
+        List<Integer> counts = connection.createStatement("INSERT INTO Region(id, name) VALUES(?, ?)")
+                .replicatedOnly(true)
+                .bind(0, 1).bind(1, "North-West").add()
+                .bind(0, 2).bind(1, "Center").add()
+                .bind(0, 3).bind(1, "South")
+                .execute()
+                .concatMap(IgniteResult::getRowsUpdated)
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(Arrays.asList(1, 1, 1), counts);
+        Assertions.assertEquals(3L, connection.createStatement("SELECT COUNT(*) FROM Region").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void rejectsClosedConnectionAfterItsClientIsReused() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client, IgniteConnectionConfiguration.builder().maxIdleConnections(1).build());
+        IgniteConnection closed = factory.create().block();
+
+        closed.close().block();
+
+        IgniteConnection reused = factory.create().block();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> closed.createStatement("SELECT 1"));
+        Assertions.assertThrows(IllegalStateException.class, closed::beginTransaction);
+        Assertions.assertThrows(IllegalStateException.class, closed::createBatch);
+        Assertions.assertThrows(IllegalStateException.class, closed::rollbackTransaction);
+        Assertions.assertFalse(closed.validate(ValidationDepth.LOCAL).block());
+        Assertions.assertEquals(1, reused.createStatement("SELECT 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+
+        reused.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void stopsProvidedNodeWithItsLastFactory() {
+        IgniteConnectionFactoryProvider provider = new IgniteConnectionFactoryProvider();
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:ignite://127.0.0.1:47500?igniteInstanceName=provided");
+        IgniteConnectionFactory first = provider.create(options);
+        IgniteConnectionFactory second = provider.create(options);
+
+        first.close().block();
+
+        Assertions.assertEquals(IgniteState.STARTED, Ignition.state("provided"));
+
+        IgniteConnection connection = second.create().block();
+
+        Assertions.assertEquals(1, connection.createStatement("SELECT 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+
+        connection.close().block();
+        second.close().block();
+
+        Assertions.assertEquals(IgniteState.STOPPED, Ignition.state("provided"));
+    }
+
+    @Test
+    public void resolvesPartitionOfTableCreatedAfterMiss() {
+        PartitionResolver partitionResolver = new PartitionResolver(client);
+        KeyPredicate predicate = KeyPredicate.find("SELECT name FROM Country WHERE id = ?");
+
+        Assertions.assertEquals(-1, partitionResolver.partition("PUBLIC", predicate, 7));
+
+        client.getOrCreateCache("test").query(new SqlFieldsQuery("CREATE TABLE Country (id int primary key, name varchar)")).getAll();
+
+        Assertions.assertEquals(client.affinity("SQL_PUBLIC_COUNTRY").partition(7), partitionResolver.partition("PUBLIC", predicate, 7));
+    }
+
+    @Test
+    public void sharesCappedTransactionThreads() {
+        IgniteConnectionConfiguration configuration = IgniteConnectionConfiguration.builder().transactionThreadCap(1).build();
+        TransactionLanes transactionLanes = new TransactionLanes(configuration.getTransactionThreadCap());
+        PartitionResolver partitionResolver = new PartitionResolver(client);
+        QueryMetrics queryMetrics = new QueryMetrics();
+        Supplier<IgniteConnection> connections = () -> new IgniteConnection(new ClientWrapper(new ThickTransport(client, false, partitionResolver), configuration,
+                new StatementCache(0), transactionLanes, queryMetrics, new ResultCache(0, Duration.ZERO), new ReadCoalescer(0, queryMetrics),
+                new UpdateGrouper(0, Duration.ZERO, queryMetrics)));
+
+        IgniteConnection first = connections.get();
+        IgniteConnection second = connections.get();
+
+        first.beginTransaction().block();
+        String lane = threadName(first);
+
+        Assertions.assertTrue(lane.startsWith("ignite-r2dbc-tx-"), lane);
+
+        Assertions.assertThrows(R2dbcTransientResourceException.class, () -> second.beginTransaction().block());
+
+        // a committed or rolled back transaction hands its thread to the next one
+        first.commitTransaction().block();
+        second.beginTransaction().block();
+        Assertions.assertEquals(lane, threadName(second));
+        Assertions.assertThrows(R2dbcTransientResourceException.class, () -> first.beginTransaction().block());
+
+        second.rollbackTransaction().block();
+        first.beginTransaction().block();
+        Assertions.assertEquals(lane, threadName(first));
+
+        // closing a connection in a transaction shuts its thread down
+        first.close().block();
+        second.beginTransaction().block();
+        Assertions.assertNotEquals(lane, threadName(second));
+
+        second.rollbackTransaction().block();
+        second.close().block();
+    }
+
+    @Test
+    public void retriesTransactionAfterWriteConflict() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection other = factory.create().block();
+        IgniteConnection connection = factory.create().block();
+        AtomicInteger attempts = new AtomicInteger();
+
+        other.createStatement("CREATE TABLE Counter (id int primary key, v int) WITH \"ATOMICITY=TRANSACTIONAL_SNAPSHOT\"").execute().collectList().block();
+        other.createStatement("INSERT INTO Counter(id, v) VALUES(1, 0)").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Integer counter = connection.inTransaction(tx -> value(tx)
+                .flatMap(value -> {
+                    // the first attempt reads the row before another transaction changes it
+                    Mono<Void> conflict = attempts.incrementAndGet() == 1
+                            ? other.createStatement("UPDATE Counter SET v = v + 10 WHERE id = 1").execute().flatMap(IgniteResult::getRowsUpdated).then()
+                            : Mono.empty();
+
+                    return conflict
+                            .then(tx.createStatement("UPDATE Counter SET v = ? WHERE id = 1").bind(0, value + 1).execute().flatMap(IgniteResult::getRowsUpdated).then())
+                            .thenReturn(value + 1);
+                }), TransactionRetry.onConflict(3, Duration.ofMillis(10))).block();
+
+        Assertions.assertEquals(2, attempts.get());
+        Assertions.assertEquals(Integer.valueOf(11), counter);
+        Assertions.assertEquals(Integer.valueOf(11), value(other).block());
+        Assertions.assertFalse(TransactionRetry.isConflict(new R2dbcTransientResourceException("All 1 transaction threads are in use")));
+
+        connection.close().block();
+        other.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void countsQueriesCancelledBeforeTheirLastRow() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+        QueryMetrics queryMetrics = factory.getQueryMetrics();
+
+        connection.createStatement("CREATE TABLE Street (id int primary key, name varchar)").execute().collectList().block();
+
+        IgniteStatement insert = connection.createStatement("INSERT INTO Street(id, name) VALUES(?, ?)");
+        for (int id = 0; id < 10; id++) {
+            insert.bind(0, id).bind(1, "street " + id).add();
+        }
+        insert.execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Assertions.assertEquals(10, connection.createStatement("SELECT name FROM Street").fetchSize(2).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).count().block());
+        Assertions.assertEquals(0, queryMetrics.getCancelledQueries());
+
+        Assertions.assertEquals(3, connection.createStatement("SELECT name FROM Street").fetchSize(2).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0)).take(3)).count().block());
+        Assertions.assertEquals(1, queryMetrics.getCancelledQueries());
+
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void splitsQueryIntoOrderedPartitionRanges() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+
+        connection.createStatement("CREATE TABLE Building (id int primary key, name varchar)").execute().collectList().block();
+
+        // small integer keys map to the partition of the same number, spread them over every range
+        IgniteStatement insert = connection.createStatement("INSERT INTO Building(id, name) VALUES(?, ?)");
+        for (int id = 0; id < 200; id++) {
+            insert.bind(0, id * 7).bind(1, "building " + id).add();
+        }
+        insert.execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Affinity<Object> affinity = client.affinity("SQL_PUBLIC_BUILDING");
+        List<Integer> ids = connection.createStatement("SELECT id FROM Building").parallel(4, true).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0, Integer.class)))
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(200, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            Assertions.assertTrue(range(affinity, ids.get(i - 1), 4) <= range(affinity, ids.get(i), 4), "rows of a range follow the ranges before it");
+        }
+
+        // every range applies the LIMIT on its own
+        Assertions.assertEquals(4, firstIds(connection, "Building").size());
+
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void runsSplitQueryAsWholeInTransactionOrOnThinClient() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+
+        connection.createStatement("CREATE TABLE Tower (id int primary key, name varchar)").execute().collectList().block();
+
+        IgniteStatement insert = connection.createStatement("INSERT INTO Tower(id, name) VALUES(?, ?)");
+        for (int id = 0; id < 100; id++) {
+            insert.bind(0, id * 13).bind(1, "tower " + id).add();
+        }
+        insert.execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        connection.beginTransaction().block();
+        Assertions.assertEquals(Arrays.asList(0), firstIds(connection, "Tower"));
+        connection.rollbackTransaction().block();
+
+        IgniteConnectionFactory thinFactory = new IgniteConnectionFactory(thinClient);
+        IgniteConnection thinConnection = thinFactory.create().block();
+
+        Assertions.assertEquals(Arrays.asList(0), firstIds(thinConnection, "Tower"));
+
+        thinConnection.close().block();
+        thinFactory.close().block();
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void runsQueriesOfConnectionOnOneExecutionThread() {
+        Scheduler executionScheduler = Schedulers.newBoundedElastic(2, 100, "r2dbc-execution");
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client, IgniteConnectionConfiguration.builder().executionScheduler(executionScheduler).build());
+        IgniteConnection connection = factory.create().block();
+
+        // subscribed from a non-blocking thread, which must not run the blocking Ignite calls
+        String first = connection.createStatement("SELECT 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> Thread.currentThread().getName()))
+                .subscribeOn(Schedulers.parallel())
+                .blockFirst();
+        String second = threadName(connection);
+
+        Assertions.assertTrue(first.startsWith("r2dbc-execution"), first);
+        Assertions.assertEquals(first, second);
+
+        connection.close().block();
+        factory.close().block();
+        executionScheduler.dispose();
+    }
+
+    @Test
+    public void keepsCursorOpenOnlyWhileRowsAreRequested() throws InterruptedException {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client, IgniteConnectionConfiguration.builder().lazy(true).build());
+        IgniteConnection connection = factory.create().block();
+
+        connection.createStatement("CREATE TABLE Lane (id int primary key, name varchar)").execute().collectList().block();
+
+        IgniteStatement insert = connection.createStatement("INSERT INTO Lane(id, name) VALUES(?, ?)");
+        for (int id = 0; id < 20; id++) {
+            insert.bind(0, id).bind(1, "lane " + id).add();
+        }
+        insert.execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Assertions.assertEquals(20, connection.createStatement("SELECT name FROM Lane").fetchSize(3).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0)))
+                .limitRate(1)
+                .count()
+                .block());
+
+        List<Boolean> running = connection.createStatement("SELECT name FROM Lane").fetchSize(3).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> isRunning("SELECT name FROM Lane")))
+                .take(4)
+                .collectList()
+                .block();
+
+        // the cursor stays open between pages and is closed once the subscriber cancels, the query stops asynchronously
+        Assertions.assertEquals(Arrays.asList(true, true, true, true), running);
+        for (long deadline = System.currentTimeMillis() + 5000; isRunning("SELECT name FROM Lane") && System.currentTimeMillis() < deadline; ) {
+            Thread.sleep(10);
+        }
+        Assertions.assertFalse(isRunning("SELECT name FROM Lane"));
+
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void streamsRowsWithoutOverwritingKeys() {
+        IgniteConnectionConfiguration configuration = IgniteConnectionConfiguration.builder().streamingPerNodeBufferSize(64).build();
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client, configuration);
+        IgniteConnection connection = factory.create().block();
+
+        connection.createStatement("CREATE TABLE Square (id int primary key, name varchar)").execute().collectList().block();
+        connection.createStatement("INSERT INTO Square(id, name) VALUES(0, 'existing')").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        // the count is of the rows submitted, the row skipped for the existing key included
+        Assertions.assertEquals(Long.valueOf(1000), connection.stream("INSERT INTO Square(id, name) VALUES(?, ?)",
+                Flux.range(0, 1000).map(id -> new Object[] {id, "square " + id})).block());
+
+        IgniteConnectionFactory thinFactory = new IgniteConnectionFactory(thinClient, configuration);
+        IgniteConnection thinConnection = thinFactory.create().block();
+
+        thinConnection.stream("INSERT INTO Square(id, name) VALUES(?, ?)", Flux.range(1000, 100).map(id -> new Object[] {id, "square " + id})).block();
+
+        Assertions.assertEquals(1100L, connection.createStatement("SELECT COUNT(*) FROM Square").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+        Assertions.assertEquals("existing", connection.createStatement("SELECT name FROM Square WHERE id = 0").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+
+        thinConnection.close().block();
+        thinFactory.close().block();
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void streamsChangesOfTableAfterItsRows() throws InterruptedException {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+        BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+
+        connection.createStatement("CREATE TABLE Park (id int primary key, name varchar)").execute().collectList().block();
+        connection.createStatement("INSERT INTO Park(id, name) VALUES(1, 'old')").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Disposable subscription = connection.changes("Park", null, true)
+                .subscribe(change -> changes.add(change.getType() + " " + change.getRow().get("ID") + " " + change.getRow().get("NAME")));
+
+        // the rows of the table are read once changes are watched
+        Assertions.assertEquals("INITIAL 1 old", changes.poll(10, TimeUnit.SECONDS));
+
+        connection.createStatement("INSERT INTO Park(id, name) VALUES(2, 'new')").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+        connection.createStatement("UPDATE Park SET name = 'renamed' WHERE id = 2").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+        connection.createStatement("DELETE FROM Park WHERE id = 1").execute().flatMap(IgniteResult::getRowsUpdated).blockLast();
+
+        Assertions.assertEquals("CREATED 2 new", changes.poll(10, TimeUnit.SECONDS));
+        Assertions.assertEquals("UPDATED 2 renamed", changes.poll(10, TimeUnit.SECONDS));
+        Assertions.assertEquals("REMOVED 1 old", changes.poll(10, TimeUnit.SECONDS));
+
+        subscription.dispose();
+
+        IgniteConnectionFactory thinFactory = new IgniteConnectionFactory(thinClient);
+        IgniteConnection thinConnection = thinFactory.create().block();
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> thinConnection.changes("Park").blockFirst());
+
+        thinConnection.close().block();
+        thinFactory.close().block();
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void runsScriptStatementsInOrder() {
+        IgniteConnectionFactory factory = new IgniteConnectionFactory(client);
+        IgniteConnection connection = factory.create().block();
+
+        List<Object> results = connection.createStatement("CREATE TABLE Bridge (id int primary key, name varchar);"
+                + " INSERT INTO Bridge(id, name) VALUES(1, 'a;b'); INSERT INTO Bridge(id, name) VALUES(2, 'c');"
+                + " SELECT COUNT(*) FROM Bridge; UPDATE Bridge SET name = 'd' WHERE id = 2; SELECT name FROM Bridge ORDER BY id")
+                .execute()
+                .concatMap(result -> result.getRowsUpdated().map(Object.class::cast)
+                        .switchIfEmpty(result.map((row, rowMetadata) -> row.get(0)).collectList()))
+                .collectList()
+                .block();
+
+        // the semicolon in the string literal does not end a statement
+        Assertions.assertEquals(Arrays.asList(0, 1, 1, Arrays.asList(2L), 1, Arrays.asList("a;b", "d")), results);
+
+        connection.close().block();
+        factory.close().block();
+    }
+
+    @Test
+    public void rejectsTransactionOnThinClient() {
+        IgniteConnectionFactory thinFactory = new IgniteConnectionFactory(thinClient);
+        IgniteConnection thinConnection = thinFactory.create().block();
+
+        Assertions.assertThrows(R2dbcNonTransientException.class, () -> thinConnection.beginTransaction().block());
+
+        // the connection stays usable outside of transactions
+        Assertions.assertEquals(1, thinConnection.createStatement("SELECT 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0))).blockFirst());
+
+        thinConnection.close().block();
+        thinFactory.close().block();
+    }
+
+    private static boolean isRunning(String sql) {
+        return ((IgniteEx) client).context().query().runningQueries(0).stream().anyMatch(query -> query.query().equals(sql));
+    }
+
+    private static List<Integer> firstIds(IgniteConnection connection, String table) {
+        return connection.createStatement("SELECT id FROM " + table + " ORDER BY id LIMIT 1").parallel(4, true).execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0, Integer.class)))
+                .collectList()
+                .block();
+    }
+
+    private static int range(Affinity<Object> affinity, int id, int ranges) {
+        // the ranges are contiguous and split the partitions as evenly as possible
+        int partition = affinity.partition(id);
+        int range = 0;
+
+        while (range + 1 < ranges && (long) affinity.partitions() * (range + 1) / ranges <= partition) {
+            range++;
+        }
+
+        return range;
+    }
+
+    private static Mono<Integer> value(IgniteConnection connection) {
+        return connection.createStatement("SELECT v FROM Counter WHERE id = 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> row.get(0, Integer.class)))
+                .next();
+    }
+
+    private static String threadName(IgniteConnection connection) {
+        return connection.createStatement("SELECT 1").execute()
+                .flatMap(result -> result.map((row, rowMetadata) -> Thread.currentThread().getName()))
+                .blockFirst();
+    }
 }
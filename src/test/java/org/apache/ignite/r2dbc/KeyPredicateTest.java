@@ -0,0 +1,34 @@
+package org.apache.ignite.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class KeyPredicateTest {
+
+    @Test
+    public void findsKeyPredicate() {
+        KeyPredicate predicate = KeyPredicate.find("SELECT name FROM sales.person p WHERE p.age > ? AND p.id = ? ORDER BY name");
+
+        Assertions.assertNotNull(predicate);
+        Assertions.assertEquals("SALES", predicate.getSchema());
+        Assertions.assertEquals("PERSON", predicate.getTable());
+        Assertions.assertEquals("ID", predicate.getColumn());
+        Assertions.assertEquals(1, predicate.getParameterIndex());
+
+        predicate = KeyPredicate.find("UPDATE person SET name = $1 WHERE $2 = \"Id\"");
+
+        Assertions.assertNotNull(predicate);
+        Assertions.assertNull(predicate.getSchema());
+        Assertions.assertEquals("Id", predicate.getColumn());
+        Assertions.assertEquals(1, predicate.getParameterIndex());
+    }
+
+    @Test
+    public void ignoresStatementsSpanningPartitions() {
+        Assertions.assertNull(KeyPredicate.find("SELECT * FROM person WHERE id = ? OR id = ?"));
+        Assertions.assertNull(KeyPredicate.find("SELECT * FROM person p JOIN city c ON p.city_id = c.id WHERE p.id = ?"));
+        Assertions.assertNull(KeyPredicate.find("SELECT * FROM person WHERE id = ? AND city_id IN (SELECT id FROM city)"));
+        Assertions.assertNull(KeyPredicate.find("DELETE FROM person WHERE id > ?"));
+        Assertions.assertNull(KeyPredicate.find("INSERT INTO person (id) VALUES (?)"));
+    }
+}
@@ -0,0 +1,79 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.ResultSetMetaData;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ReadCoalescerTest {
+
+    private final IgniteRowMetadata rowMetadata = new IgniteRowMetadata(Collections.singletonList(
+            new IgniteColumnMetadata("ID", 0, -1, -1, Long.class, ResultSetMetaData.columnNoNulls)));
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final ReadCoalescer coalescer = new ReadCoalescer(10, this.queryMetrics);
+
+    @Test
+    public void sharesRowsOfRunningQuery() {
+        AtomicReference<ReadCoalescer.Flight> leader = new AtomicReference<>();
+        MonoProcessor<IgniteResult> first = MonoProcessor.create();
+
+        this.coalescer.execute(query(1), flight -> {
+            leader.set(flight);
+            return first;
+        }, () -> Assertions.fail("not expected to run"), Schedulers.immediate()).subscribe();
+
+        Mono<List<Object>> joined = rows(this.coalescer.execute(query(1), flight -> Assertions.fail("not expected to lead"),
+                () -> Assertions.fail("not expected to run"), Schedulers.immediate()));
+        Mono<List<Object>> other = rows(this.coalescer.execute(query(2), flight -> Mono.just(result(2L)),
+                () -> Assertions.fail("not expected to run"), Schedulers.immediate()));
+
+        Assertions.assertEquals(Collections.singletonList(2L), other.block());
+
+        MonoProcessor<List<Object>> shared = joined.toProcessor();
+        leader.get().share(this.rowMetadata, Collections.singletonList(IgniteRow.toRow(Collections.singletonList(1L), this.rowMetadata)));
+        first.onNext(result(1L));
+
+        Assertions.assertEquals(Collections.singletonList(1L), shared.block());
+        Assertions.assertEquals(1, this.queryMetrics.getCoalescedQueries());
+    }
+
+    @Test
+    public void runsAloneWhenFlightSharesNothing() {
+        AtomicReference<ReadCoalescer.Flight> leader = new AtomicReference<>();
+
+        this.coalescer.execute(query(1), flight -> {
+            leader.set(flight);
+            return Mono.never();
+        }, () -> Assertions.fail("not expected to run"), Schedulers.immediate()).subscribe();
+
+        MonoProcessor<List<Object>> joined = rows(this.coalescer.execute(query(1), flight -> Assertions.fail("not expected to lead"), () -> Mono.just(result(3L)),
+                Schedulers.immediate())).toProcessor();
+        leader.get().release();
+
+        Assertions.assertEquals(Collections.singletonList(3L), joined.block());
+        Assertions.assertEquals(0, this.queryMetrics.getCoalescedQueries());
+    }
+
+    private IgniteResult result(Long id) {
+        return new IgniteResult(this.rowMetadata, Flux.just(IgniteRow.toRow(Collections.singletonList(id), this.rowMetadata)),
+                IgniteConnectionConfiguration.DEFAULT_PAGE_SIZE, Mono.empty());
+    }
+
+    private static Mono<List<Object>> rows(Mono<IgniteResult> result) {
+        return result.flatMapMany(r -> r.map((row, metadata) -> row.get(0))).collectList();
+    }
+
+    private static SqlFieldsQuery query(int arg) {
+        return new SqlFieldsQuery("SELECT ID FROM T WHERE V = ?").setSchema("PUBLIC").setArgs(arg);
+    }
+}
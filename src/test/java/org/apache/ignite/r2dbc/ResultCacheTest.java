@@ -0,0 +1,58 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+public class ResultCacheTest {
+
+    @Test
+    public void findsTablesOfStatement() {
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("PUBLIC.PERSON", "SALES.CITY")),
+                ResultCache.tables("SELECT p.name FROM person p JOIN sales.city AS c ON p.city_id = c.id WHERE p.id = ?", "public"));
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("PUBLIC.A", "PUBLIC.B")), ResultCache.tables("SELECT * FROM a, b x", "PUBLIC"));
+        Assertions.assertEquals(Collections.singleton("PUBLIC.PERSON"), ResultCache.tables("UPDATE person SET age = 1", "PUBLIC"));
+        Assertions.assertNull(ResultCache.tables("SELECT * FROM table(x int = (1, 2))", "PUBLIC"));
+    }
+
+    @Test
+    public void dropsEntriesOfChangedTables() {
+        ResultCache cache = new ResultCache(1, Duration.ofMinutes(1));
+        IgniteRowMetadata rowMetadata = new IgniteRowMetadata(Collections.emptyList());
+        SqlFieldsQuery query = new SqlFieldsQuery("SELECT * FROM person WHERE id = ?").setSchema("PUBLIC").setArgs(1);
+
+        cache.put(query, Collections.singleton("PUBLIC.PERSON"), rowMetadata, Collections.emptyList(), cache.generation());
+        Assertions.assertNotNull(cache.get(new SqlFieldsQuery(query).setArgs(1)));
+        Assertions.assertNull(cache.get(new SqlFieldsQuery(query).setArgs(2)));
+
+        long generation = cache.generation();
+        cache.invalidate(Collections.singleton("PUBLIC.PERSON"));
+        Assertions.assertNull(cache.get(query));
+
+        // rows read before the change are not cached
+        cache.put(query, Collections.singleton("PUBLIC.PERSON"), rowMetadata, Collections.emptyList(), generation);
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void keepsEntriesOfDifferentHintsApart() {
+        ResultCache cache = new ResultCache(2, Duration.ofMinutes(1));
+        IgniteRowMetadata rowMetadata = new IgniteRowMetadata(Collections.emptyList());
+        SqlFieldsQuery query = new SqlFieldsQuery("SELECT * FROM person p JOIN city c ON p.city_id = c.id").setSchema("PUBLIC");
+
+        cache.put(query, Collections.singleton("PUBLIC.PERSON"), rowMetadata, Collections.emptyList(), cache.generation());
+
+        Assertions.assertNotNull(cache.get(new SqlFieldsQuery(query)));
+        Assertions.assertNull(cache.get(new SqlFieldsQuery(query).setDistributedJoins(true)));
+        Assertions.assertNull(cache.get(new SqlFieldsQuery(query).setLazy(true)));
+        Assertions.assertNull(cache.get(new SqlFieldsQuery(query).setTimeout(1, TimeUnit.SECONDS)));
+    }
+}
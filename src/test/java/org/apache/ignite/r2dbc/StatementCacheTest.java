@@ -0,0 +1,175 @@
+package org.apache.ignite.r2dbc;
+
+import org.apache.ignite.cache.query.FieldsQueryCursor;
+import org.apache.ignite.internal.processors.cache.QueryCursorImpl;
+import org.apache.ignite.internal.processors.query.GridQueryFieldMetadata;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.sql.ResultSetMetaData;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class StatementCacheTest {
+
+    @Test
+    public void reusesParsedStatements() {
+        StatementCache cache = new StatementCache(2);
+
+        ParsedStatement statement = cache.get("INSERT INTO test VALUES ($1, $2); SELECT * FROM test WHERE id = ?3");
+
+        Assertions.assertSame(statement, cache.get("INSERT INTO test VALUES ($1, $2); SELECT * FROM test WHERE id = ?3"));
+        Assertions.assertEquals(2, statement.getFragments().size());
+        Assertions.assertEquals("SELECT * FROM test WHERE id = ?3", statement.getFragments().get(1).getTemplate().getSql());
+        Assertions.assertEquals(1, statement.getIndex("$2"));
+        Assertions.assertEquals(2, statement.getIndex("?3"));
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        StatementCache cache = new StatementCache(2);
+
+        ParsedStatement first = cache.get("SELECT 1");
+        cache.get("SELECT 2");
+        cache.get("SELECT 1");
+        cache.get("SELECT 3");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertSame(first, cache.get("SELECT 1"));
+
+        cache.get("SELECT 2");
+        Assertions.assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void splitsStatementsOutsideLiteralsAndComments() {
+        ParsedStatement statement = ParsedStatement.parse("-- setup; of test\nINSERT INTO test VALUES (1, 'a;b'); /* ; */ SELECT \"x;y\" FROM test;; -- done");
+
+        Assertions.assertEquals(2, statement.getFragments().size());
+        Assertions.assertEquals("INSERT INTO test VALUES (1, 'a;b')", statement.getFragments().get(0).getTemplate().getSql());
+        Assertions.assertTrue(statement.getFragments().get(0).isDml());
+        Assertions.assertEquals("SELECT \"x;y\" FROM test", statement.getFragments().get(1).getTemplate().getSql());
+        Assertions.assertTrue(statement.getFragments().get(1).isQuery());
+    }
+
+    @Test
+    public void resolvesPlaceholdersNotInSql() {
+        ParsedStatement statement = ParsedStatement.parse("INSERT INTO test VALUES (?, ?)");
+
+        Assertions.assertEquals(1, statement.getIndex("?2"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> statement.getIndex("name"));
+    }
+
+    @Test
+    public void reusesRowMetadataWhileFieldsMatch() {
+        StatementCache cache = new StatementCache(2);
+
+        IgniteRowMetadata metadata = cache.getRowMetadata("SELECT * FROM test", cursor("ID", "NAME"));
+
+        Assertions.assertSame(metadata, cache.getRowMetadata("SELECT * FROM test", cursor("ID", "NAME")));
+
+        IgniteRowMetadata altered = cache.getRowMetadata("SELECT * FROM test", cursor("ID", "NAME", "AGE"));
+
+        Assertions.assertNotSame(metadata, altered);
+        Assertions.assertEquals(3, altered.getColumnCount());
+        Assertions.assertNotSame(altered, cache.getRowMetadata("SELECT * FROM test", cursor("ID", "TITLE", "AGE")));
+    }
+
+    @Test
+    public void reusesRowMetadataOfTypesNotOnClassPath() {
+        StatementCache cache = new StatementCache(2);
+
+        IgniteRowMetadata metadata = cache.getRowMetadata("SELECT * FROM test", typedCursor("ID", "com.example.NotOnClassPath"));
+
+        Assertions.assertNull(metadata.getColumnMetadata(0).getJavaType());
+        Assertions.assertSame(metadata, cache.getRowMetadata("SELECT * FROM test", typedCursor("ID", "com.example.NotOnClassPath")));
+        Assertions.assertNotSame(metadata, cache.getRowMetadata("SELECT * FROM test", typedCursor("ID", "com.example.Other")));
+    }
+
+    private static FieldsQueryCursor<List<?>> typedCursor(String fieldName, String fieldTypeName) {
+        QueryCursorImpl<List<?>> cursor = new QueryCursorImpl<>(Collections.emptyList());
+
+        cursor.fieldsMeta(Collections.singletonList(new GridQueryFieldMetadata() {
+
+            @Override
+            public String schemaName() {
+                return "PUBLIC";
+            }
+
+            @Override
+            public String typeName() {
+                return "TEST";
+            }
+
+            @Override
+            public String fieldName() {
+                return fieldName;
+            }
+
+            @Override
+            public String fieldTypeName() {
+                return fieldTypeName;
+            }
+
+            @Override
+            public int precision() {
+                return -1;
+            }
+
+            @Override
+            public int scale() {
+                return -1;
+            }
+
+            @Override
+            public int nullability() {
+                return ResultSetMetaData.columnNullable;
+            }
+
+            @Override
+            public void writeExternal(ObjectOutput out) {
+            }
+
+            @Override
+            public void readExternal(ObjectInput in) {
+            }
+        }));
+
+        return cursor;
+    }
+
+    private static FieldsQueryCursor<List<?>> cursor(String... fieldNames) {
+        return new FieldsQueryCursor<List<?>>() {
+
+            @Override
+            public String getFieldName(int idx) {
+                return fieldNames[idx];
+            }
+
+            @Override
+            public int getColumnsCount() {
+                return fieldNames.length;
+            }
+
+            @Override
+            public List<List<?>> getAll() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public Iterator<List<?>> iterator() {
+                return getAll().iterator();
+            }
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package org.apache.ignite.r2dbc;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class UpdateGrouperTest {
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final UpdateGrouper grouper = new UpdateGrouper(3, Duration.ofMinutes(1), this.queryMetrics);
+
+    private final List<Integer> batches = new ArrayList<>();
+
+    @Test
+    public void runsFullGroupAsOneBatch() {
+        List<Long> counts = Flux.range(1, 3)
+                .flatMap(id -> this.grouper.update(update(id), (query, batchArgs) -> {
+                    this.batches.add(batchArgs.size());
+
+                    long[] result = new long[batchArgs.size()];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = (Integer) batchArgs.get(i)[0];
+                    }
+                    return Mono.just(result);
+                }))
+                .collectSortedList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), counts);
+        Assertions.assertEquals(Arrays.asList(3), this.batches);
+        Assertions.assertEquals(3, this.queryMetrics.getGroupedUpdates());
+    }
+
+    @Test
+    public void runsFailedRowsOnTheirOwn() {
+        List<String> outcomes = Flux.range(1, 3)
+                .flatMap(id -> this.grouper.update(update(id), (query, batchArgs) -> {
+                    this.batches.add(batchArgs.size());
+
+                    if (batchArgs.size() > 1) {
+                        return Mono.error(new IllegalStateException(new BatchUpdateException(new int[] {1, Statement.EXECUTE_FAILED})));
+                    }
+                    return batchArgs.get(0)[0].equals(2) ? Mono.error(new IllegalArgumentException("row 2")) : Mono.just(new long[] {1});
+                })
+                        .map(count -> id + "=" + count)
+                        .onErrorResume(e -> Mono.just(id + "!" + e.getMessage())))
+                .collectSortedList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(Arrays.asList("1=1", "2!row 2", "3=1"), outcomes);
+        Assertions.assertEquals(Arrays.asList(3, 1, 1), this.batches);
+    }
+
+    @Test
+    public void failsEveryRowOfBatchWithoutCounts() {
+        List<String> outcomes = Flux.range(1, 3)
+                .flatMap(id -> this.grouper.update(update(id), (query, batchArgs) -> {
+                    this.batches.add(batchArgs.size());
+                    return Mono.<long[]>error(new R2dbcTimeoutException("timed out"));
+                })
+                        .map(count -> id + "=" + count)
+                        .onErrorResume(e -> Mono.just(id + "!" + e.getMessage())))
+                .collectSortedList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(Arrays.asList("1!timed out", "2!timed out", "3!timed out"), outcomes);
+        Assertions.assertEquals(Arrays.asList(3), this.batches);
+    }
+
+    @Test
+    public void keepsArgumentsOfRowBoundAgainBeforeGroupRuns() {
+        Object[] args = {1};
+        List<Object> batched = new ArrayList<>();
+        BiFunction<SqlFieldsQuery, List<Object[]>, Mono<long[]>> executor = (query, batchArgs) -> {
+            batchArgs.forEach(row -> batched.add(row[0]));
+            return Mono.just(new long[batchArgs.size()]);
+        };
+
+        this.grouper.update(update(1).setArgs(args), executor).subscribe();
+        // the statement reuses the array of its binding when bound again
+        args[0] = 2;
+        Flux.range(3, 2).flatMap(id -> this.grouper.update(update(id), executor)).blockLast(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(Arrays.asList(1, 3, 4), batched);
+    }
+
+    private static SqlFieldsQuery update(int id) {
+        return new SqlFieldsQuery("UPDATE T SET V = V + 1 WHERE ID = ?").setSchema("PUBLIC").setArgs(id);
+    }
+}